@@ -17,6 +17,7 @@ import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.Project;
 import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.BuildTask;
 import org.gradle.testkit.runner.GradleRunner;
 import org.gradle.testkit.runner.TaskOutcome;
 import org.jboss.gm.common.io.ManipulationIO;
@@ -76,7 +77,6 @@ public final class TestUtils {
                 projectRoot.toPath().resolve("build.gradle.kts").toFile().exists());
 
         final BuildResult buildResult;
-        final TaskOutcome outcome;
 
         final Map<String, String> finalSystemProps = new LinkedHashMap<>();
         if (!systemProps.containsKey("repoRemovalBackup")) {
@@ -102,14 +102,15 @@ public final class TestUtils {
 
         if (expectFailure) {
             buildResult = runner.buildAndFail();
-            outcome = TaskOutcome.FAILED;
+            // Depending upon the error either the project scan or the aggregate alignment will have failed.
+            assertThat(buildResult.tasks(TaskOutcome.FAILED)).extracting(BuildTask::getPath)
+                    .containsAnyOf(":" + AlignmentTask.NAME, ":" + AlignProjectTask.NAME);
         } else {
-            outcome = TaskOutcome.SUCCESS;
             buildResult = runner.build();
+            assertThat(buildResult.task(":" + AlignmentTask.NAME).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+            assertThat(buildResult.task(":" + AlignProjectTask.NAME).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
         }
 
-        assertThat(buildResult.task(":" + AlignmentTask.NAME).getOutcome()).isEqualTo(outcome);
-
         if (expectFailure) {
             throw new ManipulationUncheckedException(buildResult.getOutput());
         } else {
@@ -0,0 +1,651 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.aeonbits.owner.ConfigCache;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.DirectoryFileFilter;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.io.filefilter.NameFileFilter;
+import org.apache.commons.io.filefilter.NotFileFilter;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.common.json.GAV;
+import org.commonjava.maven.ext.common.json.ModulesItem;
+import org.commonjava.maven.ext.common.json.PME;
+import org.commonjava.maven.ext.common.util.JSONUtils;
+import org.commonjava.maven.ext.core.groovy.InvocationStage;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.OutputFiles;
+import org.gradle.api.tasks.TaskAction;
+import org.jboss.gm.analyzer.alignment.AlignmentService.Response;
+import org.jboss.gm.analyzer.alignment.io.AnalysisStateIO;
+import org.jboss.gm.analyzer.alignment.io.DependencyRulesIO;
+import org.jboss.gm.analyzer.alignment.io.RepositoryExporter;
+import org.jboss.gm.analyzer.alignment.io.SettingsFileIO;
+import org.jboss.gm.analyzer.alignment.util.DependencyExclusionIndex;
+import org.jboss.gm.analyzer.alignment.util.DependencyIndex;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.ManipulationCache;
+import org.jboss.gm.common.logging.GMLogger;
+import org.jboss.gm.common.model.ManipulationModel;
+import org.jboss.gm.common.utils.GroovyUtils;
+import org.jboss.gm.common.versioning.DynamicVersionParser;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.gradle.api.Project.DEFAULT_VERSION;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.APPLY_GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_PLUGINCONFIGS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GRADLE;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END_KOTLIN;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START_KOTLIN;
+import static org.jboss.gm.common.io.ManipulationIO.MANIPULATION_FILE_NAME;
+import static org.jboss.gm.common.io.ManipulationIO.writeManipulationModel;
+import static org.jboss.gm.common.utils.FileUtils.append;
+
+/**
+ * The Gradle task, registered on the root project only, that performs the aggregate phase of the alignment once
+ * every {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} task has scanned its project. This makes the
+ * REST call, updates the model and writes {@code manipulation.json}, the reports and the injected files.
+ */
+public class AlignProjectTask extends DefaultTask {
+    public static final String NAME = "alignProject";
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private SortedMap<String, String> buildFiles;
+
+    private SortedMap<String, String> sharedFiles;
+
+    private final Map<String, SortedMap<String, String>> projectFiles = new HashMap<>();
+
+    private SortedMap<String, String> analysisInputs;
+
+    private Boolean analysisCurrent;
+
+    public AlignProjectTask() {
+        // The scans share their results with this task in memory so either all of them run or none do ; see
+        // analysisCurrent. Gradle's own history knows nothing of the scans so must not skip this task alone.
+        onlyIf(t -> !analysisCurrent());
+        getOutputs().upToDateWhen(t -> false);
+    }
+
+    /**
+     * The inputs of the alignment (build scripts, settings, lockfiles, configuration and dependency rules) each mapped
+     * to the hash of their content. These are calculated once, before the alignment modifies any of them.
+     *
+     * @return the inputs of the alignment
+     */
+    @Input
+    public synchronized SortedMap<String, String> getAnalysisInputs() {
+        if (analysisInputs == null) {
+            final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+
+            analysisInputs = AnalysisStateIO.inputsOf(buildFiles(), configuration);
+            if (!isEmpty(configuration.dependencyRulesFile())) {
+                analysisInputs.put("rules", DependencyRulesIO.hash(configuration.dependencyRulesFile(),
+                        getProject()));
+            }
+        }
+        return analysisInputs;
+    }
+
+    /**
+     * The files of the build, as returned by {@link AnalysisStateIO#filesOf(Project)}. The files of each project are
+     * shared by the inputs of this task and of the scans so are only calculated once, before the alignment modifies
+     * any of them.
+     *
+     * @return the files of the build mapped to the hash of their content
+     */
+    synchronized SortedMap<String, String> buildFiles() {
+        if (buildFiles == null) {
+            buildFiles = new TreeMap<>(sharedFiles());
+            getProject().getAllprojects().forEach(p -> buildFiles.putAll(projectFiles(p)));
+        }
+        return buildFiles;
+    }
+
+    /**
+     * The files that affect the scan of a project, as returned by {@link AnalysisStateIO#scanFilesOf(Project)}.
+     *
+     * @param project the project to be scanned
+     * @return the files mapped to the hash of their content
+     */
+    synchronized SortedMap<String, String> scanFiles(Project project) {
+        final SortedMap<String, String> result = new TreeMap<>(sharedFiles());
+
+        for (Project current = project; current != null; current = current.getParent()) {
+            result.putAll(projectFiles(current));
+        }
+        return result;
+    }
+
+    private SortedMap<String, String> sharedFiles() {
+        if (sharedFiles == null) {
+            sharedFiles = AnalysisStateIO.sharedFilesOf(getProject());
+        }
+        return sharedFiles;
+    }
+
+    private SortedMap<String, String> projectFiles(Project project) {
+        return projectFiles.computeIfAbsent(project.getPath(), path -> AnalysisStateIO.projectFilesOf(project));
+    }
+
+    /**
+     * The files written by the alignment ; {@code manipulation.json}, the injected files, the reports and, if
+     * configured, the repository settings file.
+     *
+     * @return the outputs of the alignment
+     */
+    @OutputFiles
+    public List<File> getAnalysisOutputs() {
+        final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+        final File rootDir = getProject().getRootDir();
+        final Path buildDir = getProject().getBuildDir().toPath();
+        final List<File> result = new ArrayList<>();
+
+        result.add(new File(rootDir, MANIPULATION_FILE_NAME));
+        result.add(new File(rootDir, GME));
+        result.add(new File(rootDir, GME_PLUGINCONFIGS));
+        result.add(rootDir.toPath().resolve(GRADLE).resolve(GME_REPOS).toFile());
+        if (!isEmpty(configuration.reportTxtOutputFile())) {
+            result.add(buildDir.resolve(configuration.reportTxtOutputFile()).toFile());
+        }
+        if (!isEmpty(configuration.reportJsonOutputFile())) {
+            result.add(buildDir.resolve(configuration.reportJsonOutputFile()).toFile());
+        }
+        final File repositoriesFile = getRepositoriesFile(configuration);
+        if (repositoriesFile != null) {
+            result.add(repositoriesFile);
+        }
+        return result;
+    }
+
+    @OutputFile
+    public File getAnalysisStateFile() {
+        return AnalysisStateIO.getStateFile(getProject());
+    }
+
+    /**
+     * Determines, once per build, whether the last alignment is still current, i.e. none of its inputs or outputs
+     * have changed since. If so the scans and this task are all skipped.
+     *
+     * @return true if the alignment may be skipped
+     */
+    synchronized boolean analysisCurrent() {
+        if (analysisCurrent == null) {
+            final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+
+            if (!configuration.incrementalAnalysis() || getProject().getGradle().getStartParameter().isRerunTasks()) {
+                analysisCurrent = false;
+            } else {
+                analysisCurrent = AnalysisStateIO.isCurrent(getAnalysisStateFile(), getProject().getRootDir(),
+                        getAnalysisInputs(), getAnalysisOutputs());
+            }
+            if (analysisCurrent) {
+                logger.lifecycle("Alignment inputs and outputs are unchanged since the last alignment ; skipping.");
+            }
+        }
+        return analysisCurrent;
+    }
+
+    @TaskAction
+    public void perform() {
+        final Project rootProject = getProject();
+        final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+        final ManipulationCache cache = ManipulationCache.getCache(rootProject);
+        final SortedMap<String, String> inputs = getAnalysisInputs();
+
+        // The scans may have been restored from the build cache so their results are registered here rather than
+        // by the scans themselves.
+        rootProject.getAllprojects()
+                .stream()
+                .map(p -> p.getTasks().findByName(AlignmentTask.NAME))
+                .filter(AlignmentTask.class::isInstance)
+                .forEach(t -> ((AlignmentTask) t).register());
+
+        try {
+            align(configuration, cache, cache.getModel(), rootProject);
+        } catch (ManipulationException | IOException e) {
+            throw new ManipulationUncheckedException(e);
+        }
+        AnalysisStateIO.write(getAnalysisStateFile(), rootProject.getRootDir(), inputs, getAnalysisOutputs());
+    }
+
+    /**
+     * Internal function to complete alignment - REST calls, file modifications etc after all projects are processed.
+     *
+     * @param configuration the current Configuration
+     * @param cache the cache object
+     * @param alignmentModel the current alignmentModel
+     * @param rootProject a pointer to the root Gradle project
+     * @throws ManipulationException if an error occurs
+     * @throws IOException if an error occurs
+     */
+    private void align(Configuration configuration, ManipulationCache cache, ManipulationModel alignmentModel,
+            Project rootProject) throws ManipulationException, IOException {
+        logger.info("Completed scanning {} projects; now processing for exclusions/REST/overrides...",
+                cache.getDependencies().size());
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
+                .getDependencies();
+        final DependencyIndex<Project> dependencyIndex = new DependencyIndex<>(projectDependencies,
+                configuration.restSortRequest());
+        final List<ProjectVersionRef> allDeps = dependencyIndex.getDependencies();
+
+        logger.info("Compacted {} dependencies of {} projects to {} distinct GAVs ({}% smaller)",
+                dependencyIndex.getTotal(), projectDependencies.size(), allDeps.size(),
+                dependencyIndex.getTotal() == 0 ? 0 : 100 - allDeps.size() * 100 / dependencyIndex.getTotal());
+
+        final AlignmentService alignmentService = AlignmentServiceFactory
+                .getAlignmentService(configuration, projectDependencies.keySet());
+
+        final Response alignmentResponse = alignmentService.align(
+                new AlignmentService.Request(cache.getProjectVersionRefs(configuration.versionSuffixSnapshot()),
+                        allDeps, dependencyIndex));
+        final String newVersion = alignmentResponse.getNewProjectVersion();
+
+        // While we've completed processing (sub)projects the current one is not going to be the root; so
+        // explicitly retrieve it and set its version.
+        if (configuration.versionModificationEnabled()) {
+            logger.info("Updating model version for {} from {} to {}", rootProject,
+                    rootProject.getVersion(), newVersion);
+            alignmentModel.setVersion(newVersion);
+        }
+        // Even if version modification is disabled, set the original version for consistency in the JSON file.
+        final Optional<Project> originalVersion = rootProject.getAllprojects()
+                .stream()
+                .filter(p -> !DEFAULT_VERSION.equals(
+                        p.getVersion().toString()))
+                .findAny();
+        if (originalVersion.isPresent()) {
+            alignmentModel.setOriginalVersion(originalVersion.get().getVersion().toString());
+        } else {
+            throw new ManipulationUncheckedException("Unable to locate a suitable original version");
+        }
+
+        final Set<ProjectVersionRef> nonAligned = new HashSet<>();
+        final Map<Project, ManipulationModel> modules = new HashMap<>();
+        // Iterate through all modules and set their version
+        projectDependencies.forEach((key, value) -> {
+            final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(key);
+            modules.put(key, correspondingModule);
+            if (configuration.versionModificationEnabled()) {
+                logger.info("Updating sub-project {} (path: {}) from version {} to {}",
+                        correspondingModule, correspondingModule.getProjectPathName(), value, newVersion);
+                correspondingModule.setVersion(newVersion);
+            }
+            updateModuleDynamicDependencies(correspondingModule, value);
+        });
+        updateModuleDependencies(modules, dependencyIndex, alignmentResponse);
+
+        // artifactId / rootProject.getName
+        final String artifactId = SettingsFileIO.writeProjectNameIfNeeded(getProject().getRootDir());
+        if (!isEmpty(artifactId)) {
+            logger.debug("Located artifactId ({}) for {}::{}", artifactId, alignmentModel.getGroup(),
+                    alignmentModel.getVersion());
+            alignmentModel.setName(artifactId);
+        }
+
+        // groupId
+        if (isEmpty(alignmentModel.getGroup())) {
+            final Set<String> candidates = cache.getModel().getChildren()
+                    .values()
+                    .stream().map(ManipulationModel::getGroup)
+                    .filter(StringUtils::isNotBlank)
+                    .collect(Collectors.toSet());
+
+            logger.debug("Found potential candidates of {} to establish a groupId.", candidates);
+            final String commonPrefix = StringUtils.stripEnd(StringUtils.getCommonPrefix(candidates
+                    .toArray(new String[0])), ".");
+
+            if (isEmpty(commonPrefix)) {
+                throw new ManipulationException(
+                        "Empty groupId but unable to determine a suitable replacement from any child modules.");
+            }
+
+            logger.warn("groupId for {} ({}) is empty. Defaulting to common prefix of '{}'", rootProject,
+                    rootProject.getProjectDir(), commonPrefix);
+            alignmentModel.setGroup(commonPrefix);
+        }
+
+        logger.info("Completed processing for alignment and writing {}", cache);
+        GroovyUtils.runCustomGroovyScript(logger, InvocationStage.LAST, rootProject.getRootDir(), configuration,
+                rootProject,
+                alignmentModel);
+        writeManipulationModel(rootProject.getRootDir(), alignmentModel);
+        // Ordering is important here ; we mustn't inject the gme-repos file before iterating over all *.gradle
+        // files.
+        updateAllExtraGradleFilesWithGmeRepos();
+
+        logger.info("For project script is {}  and build file {}", rootProject.getBuildscript(),
+                rootProject.getBuildFile());
+        logger.info("For project {}", rootProject.getBuildscript().getSourceFile());
+        writeGmeMarkerFile(configuration, rootProject.getBuildFile());
+        writeGmeConfigMarkerFile(rootProject.getBuildFile());
+        writeGmeReposMarkerFile();
+        writeRepositorySettingsFile(cache.getRepositories());
+        processAlignmentReport(rootProject, configuration, cache, nonAligned);
+    }
+
+    private void writeGmeMarkerFile(Configuration configuration, File rootGradle)
+            throws IOException, ManipulationException {
+        File rootDir = getProject().getRootDir();
+        File gmeGradle = new File(rootDir, GME);
+        Files.copy(getClass().getResourceAsStream('/' + GME), gmeGradle.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        if (!isEmpty(configuration.manipulationVersion())) {
+            String gmeGradleString = FileUtils.readFileToString(gmeGradle, Charset.defaultCharset());
+            String currentVersion = gmeGradleString.replaceFirst(
+                    "(?s).*(classpath \"org.jboss.gm:manipulation:)([0-9]+\\.[0-9]+(-SNAPSHOT)??)\".*", "$2");
+            logger.info("Replacing version {} with {} for the ManipulationPlugin", currentVersion,
+                    configuration.manipulationVersion());
+            FileUtils.writeStringToFile(gmeGradle,
+                    gmeGradleString.replaceFirst(currentVersion, configuration.manipulationVersion()),
+                    Charset.defaultCharset());
+        }
+
+        if (rootGradle.exists()) {
+
+            List<String> lines = FileUtils.readLines(rootGradle, Charset.defaultCharset());
+            List<String> result = new ArrayList<>();
+
+            String injectedLine = rootGradle.getName().endsWith(".kts") ? INJECT_GME_START_KOTLIN : INJECT_GME_START;
+            String first = org.jboss.gm.common.utils.FileUtils.getFirstLine(lines);
+            logger.debug("Read first line '{}' from {}", first, rootGradle);
+
+            // Check if the first non-blank line is the gme phrase, otherwise inject it.
+            if (!injectedLine.equals(first.trim())) {
+                result.add(System.lineSeparator());
+                result.add(injectedLine);
+                result.add(System.lineSeparator());
+                result.addAll(lines);
+
+                FileUtils.writeLines(rootGradle, result);
+            }
+
+        } else {
+            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+        }
+    }
+
+    private void writeGmeConfigMarkerFile(File rootGradle) throws IOException {
+        File rootDir = getProject().getRootDir();
+        File gmePluginConfigsGradle = new File(rootDir, GME_PLUGINCONFIGS);
+        Files.copy(getClass().getResourceAsStream('/' + GME_PLUGINCONFIGS), gmePluginConfigsGradle.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        if (rootGradle.exists()) {
+
+            String injectedLine = rootGradle.getName().endsWith(".kts") ? INJECT_GME_END_KOTLIN : INJECT_GME_END;
+            String line = org.jboss.gm.common.utils.FileUtils.getLastLine(rootGradle);
+            logger.debug("Read last line '{}' from {}", line, rootGradle);
+
+            if (!line.trim().equals(injectedLine)) {
+                // Haven't appended it before.
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(rootGradle, true))) {
+                    // Ensure the marker is on a line by itself.
+                    writer.newLine();
+                    writer.write(injectedLine);
+                    writer.newLine();
+                    writer.flush();
+                }
+            }
+        } else {
+            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void writeGmeReposMarkerFile() throws IOException {
+        File rootDir = getProject().getRootDir();
+        File gradleDir = new File(rootDir, GRADLE);
+        gradleDir.mkdir();
+        File gmeReposGradle = new File(gradleDir, GME_REPOS);
+
+        Files.copy(getClass().getResourceAsStream('/' + GME_REPOS), gmeReposGradle.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void updateAllExtraGradleFilesWithGmeRepos() throws IOException, ManipulationException {
+        final File rootDir = getProject().getRootDir();
+        final File gradleScriptsDirectory = rootDir.toPath().resolve(GRADLE).toFile();
+        if (!gradleScriptsDirectory.exists()) {
+            return;
+        }
+        final Collection<File> extraGradleScripts = FileUtils.listFiles(gradleScriptsDirectory,
+                FileFilterUtils.and(new SuffixFileFilter(".gradle"), new NotFileFilter(new NameFileFilter(GME_REPOS))),
+                DirectoryFileFilter.DIRECTORY);
+        for (File extraGradleScript : extraGradleScripts) {
+            final List<String> lines = FileUtils.readLines(extraGradleScript, Charset.defaultCharset());
+
+            if (!APPLY_GME_REPOS.equals(org.jboss.gm.common.utils.FileUtils.getFirstLine(lines))) {
+                final List<String> result = new ArrayList<>(lines.size() + 2);
+                result.add(APPLY_GME_REPOS);
+                result.add(System.lineSeparator());
+                result.addAll(lines);
+                FileUtils.writeLines(extraGradleScript, result);
+            }
+        }
+    }
+
+    private void updateModuleDynamicDependencies(ManipulationModel correspondingModule,
+            Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies) {
+
+        allModuleDependencies.forEach((d, p) -> {
+            // we need to make sure that dynamic dependencies are stored with their original key
+            // in order for the manipulation plugin to be able to look them up properly
+            if (isNotBlank(d.getVersionString()) && DynamicVersionParser.isDynamic(d.getVersionString())) {
+                correspondingModule.getAlignedDependencies().put(d.toString(), p);
+            }
+        });
+    }
+
+    /**
+     * This does the actual substitution replacing the dependencies with aligned version if it exists. Each distinct
+     * GAV is only processed once and the result applied to every module using it.
+     *
+     * @param modules the model of each project
+     * @param dependencyIndex the distinct dependencies and the modules using them
+     * @param alignmentResponse the response which (possibly) contains overrides and DA information
+     */
+    private void updateModuleDependencies(Map<Project, ManipulationModel> modules,
+            DependencyIndex<Project> dependencyIndex, Response alignmentResponse) {
+
+        dependencyIndex.getDependencies().forEach(p -> {
+            final String newDependencyVersion = alignmentResponse.getAlignedVersionOfGav(p);
+            if (!StringUtils.isEmpty(newDependencyVersion)) {
+                final ProjectVersionRef newVersion = ProjectVersionFactory.withNewVersion(p, newDependencyVersion);
+
+                dependencyIndex.forEachUsage(p, (project, d) -> {
+                    if (alignmentResponse.isExcluded(DependencyExclusionIndex.getModule(project), p)) {
+                        logger.debug("Dependency {} is excluded from alignment of module {}", p, project);
+                        return;
+                    }
+                    final ManipulationModel correspondingModule = modules.get(project);
+
+                    logger.debug("In module {} with GAV {} found a replacement version of {}",
+                            correspondingModule.getProjectPathName(), p, newDependencyVersion);
+                    // we need to make sure that dynamic dependencies are stored with their original key
+                    // in order for the manipulation plugin to be able to look them up properly
+                    correspondingModule.getAlignedDependencies().put(d.toString(), newVersion);
+                });
+            }
+        });
+    }
+
+    /**
+     * Writes a maven settings file containing artifact repositories used by this project.
+     *
+     * @param repositories A map of repositories to the file path where it occurred.
+     */
+    private void writeRepositorySettingsFile(Map<ArtifactRepository, Path> repositories) {
+        Configuration config = ConfigCache.getOrCreate(Configuration.class);
+
+        File repositoriesFile = getRepositoriesFile(config);
+        if (repositoriesFile != null) {
+            RepositoryExporter.export(repositories, repositoriesFile);
+        } else {
+            logger.info("Repository export disabled.");
+        }
+    }
+
+    private File getRepositoriesFile(Configuration config) {
+        String repositoriesFilePath = config.repositoriesFile();
+        if (isEmpty(repositoriesFilePath)) {
+            return null;
+        } else if (Paths.get(repositoriesFilePath).isAbsolute()) {
+            return new File(repositoriesFilePath);
+        } else {
+            return new File(getProject().getRootDir(), repositoriesFilePath);
+        }
+    }
+
+    private void writeReport(Path outputDir, String filename, String text) throws ManipulationException {
+        final Path reportFile = outputDir.resolve(filename);
+
+        try {
+            logger.debug("Writing to file {}", reportFile);
+            Files.createDirectories(outputDir);
+            FileUtils.writeStringToFile(reportFile.toFile(), text, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ManipulationException("Unable to write " + reportFile, e);
+        }
+    }
+
+    private void processAlignmentReport(Project project, Configuration configuration, ManipulationCache cache,
+            Set<ProjectVersionRef> nonAligned) throws ManipulationException, IOException {
+        final ManipulationModel alignmentModel = cache.getModel();
+        final String originalGa = alignmentModel.getGroup() + ":" + alignmentModel.getName();
+        final StringBuilder builder = new StringBuilder(500);
+        final PME jsonReport = new PME();
+        final List<ModulesItem> modules = jsonReport.getModules();
+        final ProjectVersionRef pvr = SimpleProjectVersionRef.parse(originalGa + ":" + alignmentModel.getVersion());
+        final GAV g = new GAV();
+        final String originalGav = originalGa + ":" + alignmentModel.getOriginalVersion();
+        g.setOriginalGAV(originalGav);
+        g.setPVR(pvr);
+        jsonReport.setGav(g);
+
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
+                .getDependencies();
+        final Set<Map.Entry<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>>> entrySet = projectDependencies
+                .entrySet();
+
+        for (Map.Entry<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> entry : entrySet) {
+            final Project name = entry.getKey();
+            final Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies = entry.getValue();
+            final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(name);
+            final String group = correspondingModule.getGroup().isEmpty() ? alignmentModel.getGroup()
+                    : correspondingModule.getGroup();
+            final String ga = group + ":" + correspondingModule.getName();
+            final String v = correspondingModule.getOriginalVersion() == null ? alignmentModel.getOriginalVersion()
+                    : correspondingModule.getOriginalVersion();
+            final String newModuleVersion = correspondingModule.getVersion();
+            final String newModuleGav = ga + ":" + newModuleVersion;
+            append(builder, "------------------- project {} (path: {})", ga, name.getPath());
+
+            if (!v.equals(newModuleVersion)) {
+                append(builder, "\tProject version : {} --> {}", v, newModuleVersion);
+            }
+
+            builder.append(System.lineSeparator());
+            final ModulesItem module = new ModulesItem();
+            final String originalModuleGav = ga + ":" + v;
+            module.getGav().setOriginalGAV(originalModuleGav);
+            module.getGav().setPVR(SimpleProjectVersionRef.parse(newModuleGav));
+            modules.add(module);
+            final Map<String, ProjectVersionRef> dependencies = new LinkedHashMap<>();
+            final boolean reportNonAligned = configuration.reportNonAligned();
+            final Set<Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef>> allModuleDependenciesEntrySet =
+                    allModuleDependencies.entrySet();
+
+            for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> e : allModuleDependenciesEntrySet) {
+                final RelaxedProjectVersionRef d = e.getKey();
+                final ProjectVersionRef p = e.getValue();
+                final ProjectVersionRef newDependencyVersion = correspondingModule.getAlignedDependencies()
+                        .get(d.toString());
+                logger.debug("In module {} with GAV {} found a replacement version of {}",
+                        correspondingModule.getProjectPathName(), p, newDependencyVersion);
+
+                if (newDependencyVersion == null) {
+                    if (reportNonAligned) {
+                        nonAligned.add(d);
+                    }
+                } else {
+                    dependencies.put(d.toString(), newDependencyVersion);
+                }
+            }
+
+            if (!dependencies.isEmpty()) {
+                module.getDependencies().putAll(dependencies);
+                final Set<Map.Entry<String, ProjectVersionRef>> dependenciesEntrySet = dependencies.entrySet();
+
+                for (Map.Entry<String, ProjectVersionRef> dependencyEntry : dependenciesEntrySet) {
+                    final String p = dependencyEntry.getKey();
+                    final ProjectVersionRef newDependencyVersion = dependencyEntry.getValue();
+                    append(builder, "\tDependencies : {} --> {}", p, newDependencyVersion);
+                }
+            }
+
+            if (!nonAligned.isEmpty()) {
+                for (ProjectVersionRef na : nonAligned) {
+                    append(builder, "\tNon-Aligned Dependencies : {}", na);
+                }
+            }
+
+            if (!dependencies.isEmpty() || !nonAligned.isEmpty()) {
+                builder.append(System.lineSeparator());
+            }
+        }
+
+        final String reportText = builder.toString();
+        logger.info("{}{}", System.lineSeparator(), reportText);
+        final Path outputDir = project.getRootProject().getBuildDir().toPath();
+
+        if (!StringUtils.isEmpty(configuration.reportTxtOutputFile())) {
+            writeReport(outputDir, configuration.reportTxtOutputFile(), reportText);
+        }
+
+        if (!StringUtils.isEmpty(configuration.reportJsonOutputFile())) {
+            writeReport(outputDir, configuration.reportJsonOutputFile(), JSONUtils.jsonToString(jsonReport));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer;
+import org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer;
+import org.jboss.gm.common.Configuration;
+
+/**
+ * Creates the request and response customizers wrapped around the {@link AlignmentService}. Implementations are
+ * discovered via {@link java.util.ServiceLoader}, by listing them within
+ * <code>META-INF/services/org.jboss.gm.analyzer.alignment.AlignmentCustomizerProvider</code>, and the customizers of
+ * all of them are used, sorted by their order.
+ *
+ * @see DefaultCustomizerProvider
+ * @see WithCustomizersDelegatingAlignmentService
+ */
+public interface AlignmentCustomizerProvider {
+
+    /**
+     * @param configuration the current configuration
+     * @param projects the projects being aligned
+     * @return the request customizers ; any null entries are ignored
+     */
+    default List<RequestCustomizer> getRequestCustomizers(Configuration configuration, Set<Project> projects) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param configuration the current configuration
+     * @param projects the projects being aligned
+     * @return the response customizers ; any null entries are ignored
+     */
+    default List<ResponseCustomizer> getResponseCustomizers(Configuration configuration, Set<Project> projects) {
+        return Collections.emptyList();
+    }
+}
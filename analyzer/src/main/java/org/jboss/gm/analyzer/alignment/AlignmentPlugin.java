@@ -1,8 +1,13 @@
 package org.jboss.gm.analyzer.alignment;
 
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
 import org.aeonbits.owner.ConfigCache;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.logging.Logger;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.ManipulationCache;
@@ -12,8 +17,9 @@ import org.jboss.gm.common.model.ManipulationModel;
 import org.jboss.gm.common.utils.ManifestUtils;
 
 /**
- * Results in adding a task with name {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME}.
- * It scans the project(s) and creates the manipulation models.
+ * Results in adding a task with name {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} to each project
+ * and a task with name {@value org.jboss.gm.analyzer.alignment.AlignProjectTask#NAME} to the root project.
+ * The former scans the project(s) and the latter, which depends upon every scan, creates the manipulation models.
  */
 @SuppressWarnings("unused")
 public class AlignmentPlugin implements Plugin<Project> {
@@ -35,13 +41,23 @@ public class AlignmentPlugin implements Plugin<Project> {
                 // Run this in afterEvaluate because only then is the group information populated for certain projects
                 final ManipulationCache cache = ManipulationCache.getCache(project, getManipulationModel(project));
             });
+
+            final Task alignProject = project.getTasks().create(AlignProjectTask.NAME, AlignProjectTask.class);
+            // Resolved lazily as the subprojects will not have had the plugin applied yet.
+            alignProject.dependsOn((Callable<?>) () -> project.getAllprojects()
+                    .stream()
+                    .map(p -> p.getTasks().findByName(AlignmentTask.NAME))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
         }
 
         if (System.getProperty("gmeFunctionalTest") != null) {
             ConfigCache.getOrCreate(Configuration.class).reload();
         }
 
-        project.getTasks().create(AlignmentTask.NAME, AlignmentTask.class);
+        // Running the scan task (as the CLI and tooling do) must still complete the alignment.
+        project.getTasks().create(AlignmentTask.NAME, AlignmentTask.class)
+                .finalizedBy(Project.PATH_SEPARATOR + AlignProjectTask.NAME);
     }
 
     private ManipulationModel getManipulationModel(Project project) {
@@ -2,8 +2,8 @@ package org.jboss.gm.analyzer.alignment;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -12,11 +12,16 @@ import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.Project;
+import org.jboss.gm.analyzer.alignment.util.DependencyExclusionIndex;
+import org.jboss.gm.analyzer.alignment.util.DependencyIndex;
+import org.jboss.gm.analyzer.alignment.util.DependencyOverrideIndex;
 
 /**
- * Used by {@link org.jboss.gm.analyzer.alignment.AlignmentTask} in order to perform the alignment
+ * Used by {@link org.jboss.gm.analyzer.alignment.AlignProjectTask} in order to perform the alignment
  *
  * @see org.jboss.gm.analyzer.alignment.DAAlignmentService
+ * @see org.jboss.gm.analyzer.alignment.AlignmentServiceProvider
  */
 public interface AlignmentService {
 
@@ -31,10 +36,25 @@ public interface AlignmentService {
      * not be handle the project GAV
      */
     @Getter
-    @RequiredArgsConstructor
     class Request {
         private final List<ProjectVersionRef> project;
         private final List<ProjectVersionRef> dependencies;
+
+        /**
+         * The modules using each dependency, or null if unknown.
+         */
+        private final DependencyIndex<Project> dependencyIndex;
+
+        public Request(List<ProjectVersionRef> project, List<ProjectVersionRef> dependencies) {
+            this(project, dependencies, null);
+        }
+
+        public Request(List<ProjectVersionRef> project, List<ProjectVersionRef> dependencies,
+                DependencyIndex<Project> dependencyIndex) {
+            this.project = project;
+            this.dependencies = dependencies;
+            this.dependencyIndex = dependencyIndex;
+        }
     }
 
     /**
@@ -49,11 +69,29 @@ public interface AlignmentService {
         private Map<ProjectRef, String> overrideMap;
         private String newProjectVersion;
 
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private DependencyOverrideIndex overrideIndex;
+
+        @Getter(AccessLevel.NONE)
+        private DependencyExclusionIndex exclusions;
+
+        /**
+         * Sets the overrides, compiling their keys so that each aligned version is looked up without testing every
+         * key in turn.
+         *
+         * @param overrideMap the overrides, in order of precedence
+         */
+        public void setOverrideMap(Map<ProjectRef, String> overrideMap) {
+            this.overrideMap = overrideMap;
+            this.overrideIndex = overrideMap == null ? null : new DependencyOverrideIndex(overrideMap);
+        }
+
         String getAlignedVersionOfGav(ProjectVersionRef gav) {
-            final Optional<ProjectRef> projectRef = matchingProjectRef(gav);
+            final ProjectRef projectRef = overrideIndex == null ? null : overrideIndex.match(gav);
 
-            if (projectRef.isPresent()) {
-                return overrideMap.get(projectRef.get());
+            if (projectRef != null) {
+                return overrideMap.get(projectRef);
             }
             if (translationMap == null) {
                 throw new ManipulationUncheckedException("Translation map has not been initialised");
@@ -61,9 +99,19 @@ public interface AlignmentService {
             return translationMap.get(gav);
         }
 
-        private Optional<ProjectRef> matchingProjectRef(ProjectRef gav) {
-            return overrideMap == null ? Optional.empty()
-                    : overrideMap.keySet().stream().filter(p -> p.matches(gav)).findFirst();
+        /**
+         * Whether the dependency is excluded from alignment within the module. An override always takes precedence
+         * over an exclusion.
+         *
+         * @param module the module, or null if it has no GA
+         * @param gav the dependency
+         * @return whether the aligned version should not be applied to the module
+         */
+        boolean isExcluded(ProjectRef module, ProjectVersionRef gav) {
+            if (exclusions == null || exclusions.isEmpty()) {
+                return false;
+            }
+            return (overrideIndex == null || overrideIndex.match(gav) == null) && exclusions.isExcluded(module, gav);
         }
     }
 
@@ -1,50 +1,122 @@
 package org.jboss.gm.analyzer.alignment;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
 import org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer;
 import org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer;
 import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.logging.GMLogger;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
 
 /**
- * This is what {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} task uses to retrieve a fully wired
+ * This is what {@value org.jboss.gm.analyzer.alignment.AlignProjectTask#NAME} task uses to retrieve a fully wired
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService}
+ * <p>
+ * The service, and its customizers, are created by the {@link AlignmentServiceProvider} and
+ * {@link AlignmentCustomizerProvider} implementations found via {@link ServiceLoader} from the class loader of the
+ * plugin.
  */
 final class AlignmentServiceFactory {
 
+    private static final Logger logger = GMLogger.getLogger(AlignmentServiceFactory.class);
+
     private AlignmentServiceFactory() {
     }
 
     static AlignmentService getAlignmentService(Configuration configuration, Set<Project> projects) {
-        return new WithCustomizersDelegatingAlignmentService(new DAAlignmentService(configuration),
-                getRequestCustomizers(configuration, projects),
-                getResponseCustomizers(configuration, projects));
+        final AlignmentServiceProvider provider = getProvider(configuration);
+        final List<RequestCustomizer> requestCustomizers = new ArrayList<>();
+        final List<ResponseCustomizer> responseCustomizers = new ArrayList<>();
+
+        logger.debug("Using alignment service provider {}", provider.getClass().getName());
+
+        for (AlignmentCustomizerProvider customizerProvider : load(AlignmentCustomizerProvider.class)) {
+            customizerProvider.getRequestCustomizers(configuration, projects).stream().filter(Objects::nonNull)
+                    .forEach(requestCustomizers::add);
+            customizerProvider.getResponseCustomizers(configuration, projects).stream().filter(Objects::nonNull)
+                    .forEach(responseCustomizers::add);
+        }
+        return new WithCustomizersDelegatingAlignmentService(provider.create(configuration, projects),
+                requestCustomizers, responseCustomizers);
     }
 
     /**
-     * Creates the request customizers.
-     * Currently only a single one exists so in theory we could eliminate the List here. Keeping it for consistency
-     * with the response side and potential future expansion.
+     * Creates the request customizers alone, for those lookups made before the alignment itself.
      *
      * @param configuration the current Configuration.
      * @param projects the current Projects
-     * @return the list of Request Customizers.
+     * @return the request customizers, sorted by their order
+     */
+    static List<RequestCustomizer> getRequestCustomizers(Configuration configuration, Set<Project> projects) {
+        final List<RequestCustomizer> result = new ArrayList<>();
+
+        for (AlignmentCustomizerProvider customizerProvider : load(AlignmentCustomizerProvider.class)) {
+            customizerProvider.getRequestCustomizers(configuration, projects).stream().filter(Objects::nonNull)
+                    .forEach(result::add);
+        }
+        result.sort(Comparator.comparingInt(RequestCustomizer::order));
+        return result;
+    }
+
+    /**
+     * Selects the provider to use from those found via {@link ServiceLoader}.
+     *
+     * @param configuration the current Configuration.
+     * @return the provider with the lowest order of those that support the configuration
+     */
+    static AlignmentServiceProvider getProvider(Configuration configuration) {
+        return getProvider(configuration, load(AlignmentServiceProvider.class));
+    }
+
+    /**
+     * Selects the provider to use.
+     *
+     * @param configuration the current Configuration.
+     * @param providers the available providers
+     * @return the provider with the lowest order of those that support the configuration
      */
-    private static List<RequestCustomizer> getRequestCustomizers(Configuration configuration,
-            Set<Project> projects) {
-        return Stream.of(DependencyExclusionCustomizer.fromConfigurationForModule(configuration,
-                projects)).filter(Objects::nonNull).collect(Collectors.toList());
+    // Package private for testing
+    static AlignmentServiceProvider getProvider(Configuration configuration,
+            Iterable<AlignmentServiceProvider> providers) {
+        return StreamSupport.stream(providers.spliterator(), false)
+                .filter(p -> p.supports(configuration))
+                .min(Comparator.comparingInt(AlignmentServiceProvider::order))
+                .orElseThrow(() -> new ManipulationUncheckedException(
+                        "No alignment service supports dependencySource {}",
+                        configuration.dependencyConfiguration()));
+    }
+
+    // Package private for testing
+    static <T> ServiceLoader<T> load(Class<T> service) {
+        return ServiceLoader.load(service, AlignmentServiceFactory.class.getClassLoader());
     }
 
-    private static List<ResponseCustomizer> getResponseCustomizers(Configuration configuration,
-            Set<Project> projects) {
-        return Stream.of(DependencyOverrideCustomizer.fromConfigurationForModule(configuration, projects),
-                new UpdateProjectVersionCustomizer(projects, configuration)).filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    /**
+     * Returns the directory of the on disk REST cache ; either that configured or <code>caches/gme</code> within the
+     * Gradle user home.
+     *
+     * @param configuration the current Configuration.
+     * @param projects the current Projects
+     * @return the cache directory, or null if it can't be determined
+     */
+    static File getCacheDirectory(Configuration configuration, Set<Project> projects) {
+        if (!isEmpty(configuration.restCacheDirectory())) {
+            return new File(configuration.restCacheDirectory());
+        }
+        return projects.stream()
+                .findFirst()
+                .map(p -> new File(p.getGradle().getGradleUserHomeDir(), "caches" + File.separator + "gme"))
+                .orElse(null);
     }
 }
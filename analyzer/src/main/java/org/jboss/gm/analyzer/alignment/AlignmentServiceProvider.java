@@ -0,0 +1,53 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.jboss.gm.common.Configuration;
+
+/**
+ * Creates the {@link AlignmentService} used by {@link AlignProjectTask}. Implementations are discovered via
+ * {@link java.util.ServiceLoader}, by listing them within
+ * <code>META-INF/services/org.jboss.gm.analyzer.alignment.AlignmentServiceProvider</code>, so that alternative
+ * alignment back-ends may be plugged in by adding them to the build script class path.
+ * <p>
+ * Of the providers that support the current configuration (typically its
+ * {@link Configuration#dependencyConfiguration()}), the one with the lowest order is used. The
+ * {@link DAAlignmentServiceProvider} supports every configuration and has the highest order, so it is only used if no
+ * other provider applies.
+ *
+ * @see AlignmentCustomizerProvider
+ */
+public interface AlignmentServiceProvider {
+
+    /**
+     * @param configuration the current configuration
+     * @return whether the service created by this provider is able to align the build using the configuration
+     */
+    boolean supports(Configuration configuration);
+
+    /**
+     * Creates the service.
+     *
+     * @param configuration the current configuration
+     * @param projects the projects being aligned
+     * @return the service, which is wrapped with the customizers of each {@link AlignmentCustomizerProvider}
+     */
+    AlignmentService create(Configuration configuration, Set<Project> projects);
+
+    /**
+     * @param configuration the current configuration
+     * @return whether the service created by this provider collects the lookups sent to the REST endpoint in the
+     *         background by the {@link DALookupPipeline} ; if not the pipeline isn't created so nothing is sent
+     *         while the projects are scanned
+     */
+    default boolean supportsPipeline(Configuration configuration) {
+        return false;
+    }
+
+    // Integer.MIN_VALUE is the max order. As with the customizers, if more than one provider supports the
+    // configuration, the one with the smallest value is used.
+    default int order() {
+        return 0;
+    }
+}
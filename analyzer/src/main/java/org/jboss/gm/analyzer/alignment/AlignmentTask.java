@@ -1,87 +1,68 @@
 package org.jboss.gm.analyzer.alignment;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.aeonbits.owner.ConfigCache;
 import org.apache.commons.beanutils.ContextClassLoaderLocal;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.FileFilterUtils;
-import org.apache.commons.io.filefilter.NameFileFilter;
-import org.apache.commons.io.filefilter.NotFileFilter;
-import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
-import org.commonjava.maven.ext.common.json.GAV;
-import org.commonjava.maven.ext.common.json.ModulesItem;
-import org.commonjava.maven.ext.common.json.PME;
-import org.commonjava.maven.ext.common.util.JSONUtils;
-import org.commonjava.maven.ext.core.groovy.InvocationStage;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.DependencySet;
-import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ProjectDependency;
-import org.gradle.api.artifacts.ResolvedDependency;
-import org.gradle.api.artifacts.UnresolvedDependency;
-import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
 import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultResolutionStrategy;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.publish.PublishingExtension;
 import org.gradle.api.publish.maven.MavenPublication;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
-import org.jboss.gm.analyzer.alignment.AlignmentService.Response;
+import org.jboss.gm.analyzer.alignment.io.AnalysisStateIO;
 import org.jboss.gm.analyzer.alignment.io.LockFileIO;
-import org.jboss.gm.analyzer.alignment.io.RepositoryExporter;
-import org.jboss.gm.analyzer.alignment.io.SettingsFileIO;
 import org.jboss.gm.analyzer.alignment.util.Comparator;
+import org.jboss.gm.analyzer.alignment.util.ConfigurationFilter;
+import org.jboss.gm.analyzer.alignment.util.ConfigurationFingerprint;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.ManipulationCache;
-import org.jboss.gm.common.io.ManipulationIO;
+import org.jboss.gm.common.io.ScanResultIO;
 import org.jboss.gm.common.logging.GMLogger;
 import org.jboss.gm.common.model.ManipulationModel;
-import org.jboss.gm.common.utils.GroovyUtils;
+import org.jboss.gm.common.utils.ManifestUtils;
 import org.jboss.gm.common.utils.ProjectUtils;
 import org.jboss.gm.common.versioning.DynamicVersionParser;
 import org.jboss.gm.common.versioning.ProjectVersionFactory;
 import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
 
-import static org.apache.commons.lang.StringUtils.isEmpty;
-import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.gradle.api.Project.DEFAULT_VERSION;
-import static org.jboss.gm.common.io.ManipulationIO.writeManipulationModel;
-import static org.jboss.gm.common.utils.FileUtils.append;
 
 /**
- * The actual Gradle task that creates the {@code manipulation.json} file for the whole project
- * (whether it's a single or multi module project)
+ * The Gradle task that scans a single project (whether it's the root or a module of a multi module project) and
+ * writes its dependencies to {@link #getScanResultFile()}. As the result depends only upon the declared
+ * {@link #getScanInputs()} it may be restored from the build cache. {@link AlignProjectTask} then stores every result
+ * in the {@link ManipulationCache} and creates the {@code manipulation.json} file for the whole project.
  */
+@CacheableTask
 public class AlignmentTask extends DefaultTask {
     public static final String GME = "gme.gradle";
     public static final String INJECT_GME_START = "buildscript { apply from: \"" + GME + "\" }";
@@ -122,20 +103,160 @@ public class AlignmentTask extends DefaultTask {
         DEPENDENCY_CONSTRAINT_CLASS = dependencyConstraintClass;
     }
 
+    private static final String SCAN_RESULT_FILE = "gme-scan.json";
+
+    private static final String NOT_CACHEABLE = "not-cacheable";
+
+    private static final String SNAPSHOT = "-SNAPSHOT";
+
     private final Logger logger = GMLogger.getLogger(getClass());
 
+    private SortedMap<String, String> scanInputs;
+
+    public AlignmentTask() {
+        // Skipped along with the aggregate phase if the last alignment is still current.
+        onlyIf(t -> {
+            final AlignProjectTask alignProject = getAlignProjectTask();
+            return alignProject == null || !alignProject.analysisCurrent();
+        });
+        // Results may only be shared if the same inputs always resolve to the same graph.
+        getOutputs().cacheIf(t -> isScanCacheable());
+    }
+
+    /**
+     * The inputs that determine the outcome of the scan ; the files of this project and its parents (build scripts,
+     * settings, properties and lockfiles) along with those shared by the whole build, the configuration properties
+     * that affect resolution and the fingerprint of each configuration that is resolved. The fingerprints capture the
+     * repositories, dependencies and resolution strategy contributed by plugins and init scripts as well as by the
+     * build scripts. The build files of unrelated projects are not inputs, so changing one project doesn't invalidate
+     * the scans of its siblings.
+     *
+     * @return the inputs of the scan, each mapped to the hash of its content
+     */
+    @Input
+    public synchronized SortedMap<String, String> getScanInputs() {
+        if (scanInputs == null) {
+            final Project project = getProject();
+            final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+            final AlignProjectTask alignProject = getAlignProjectTask();
+            final SortedMap<String, String> result = alignProject == null
+                    ? AnalysisStateIO.scanFilesOf(project)
+                    : alignProject.scanFiles(project);
+
+            result.put("gme", AnalysisStateIO.hash(ManifestUtils.getManifestInformation()));
+            result.put("property:overrideTransitive", String.valueOf(configuration.overrideTransitive()));
+            result.put("property:ignoreUnresolvableDependencies",
+                    String.valueOf(configuration.ignoreUnresolvableDependencies()));
+            for (org.gradle.api.artifacts.Configuration c : getResolvableConfigurations(project, configuration, null)) {
+                final String fingerprint = ConfigurationFingerprint.of(project, c);
+                result.put("configuration:" + c.getName(),
+                        fingerprint == null ? NOT_CACHEABLE : AnalysisStateIO.hash(fingerprint));
+            }
+            scanInputs = result;
+        }
+        return scanInputs;
+    }
+
+    /**
+     * The result of the scan ; the dependencies of the project and the version each resolved to. This is read by
+     * {@link AlignProjectTask}, via {@link #register()}, whether the scan was performed by this build or restored from
+     * the build cache.
+     *
+     * @return the file holding the result of the scan
+     */
+    @OutputFile
+    public File getScanResultFile() {
+        return new File(getProject().getBuildDir(), SCAN_RESULT_FILE);
+    }
+
+    private AlignProjectTask getAlignProjectTask() {
+        final Task result = getProject().getRootProject().getTasks().findByName(AlignProjectTask.NAME);
+        return result instanceof AlignProjectTask ? (AlignProjectTask) result : null;
+    }
+
+    /**
+     * A scan may only be shared if every configuration can be fingerprinted and no dependency has a dynamic or
+     * changing version, as those may resolve differently at a later time. When transitive dependencies are aligned too
+     * the versions they request are examined as well, which requires the configurations to be resolved ; Gradle
+     * retains the result so the scan itself doesn't resolve them again.
+     */
+    private boolean isScanCacheable() {
+        if (getScanInputs().containsValue(NOT_CACHEABLE)) {
+            return false;
+        }
+        final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+        final List<org.gradle.api.artifacts.Configuration> configurations = getResolvableConfigurations(getProject(),
+                configuration, null);
+        for (org.gradle.api.artifacts.Configuration c : configurations) {
+            final List<String> versions = new ArrayList<>();
+            c.getAllDependencies()
+                    .stream()
+                    .filter(d -> !(d instanceof ProjectDependency))
+                    .forEach(d -> versions.add(d.getVersion()));
+            c.getAllDependencyConstraints().forEach(d -> versions.add(d.getVersion()));
+
+            for (String version : versions) {
+                if (isChanging(version)) {
+                    logger.info("Scan of {} isn't cacheable as configuration {} has a dynamic or changing version {}",
+                            getProject(), c.getName(), version);
+                    return false;
+                }
+            }
+        }
+        if (Boolean.TRUE.equals(configuration.overrideTransitive())) {
+            relaxConflictResolution(configurations);
+            for (org.gradle.api.artifacts.Configuration c : configurations) {
+                final String version = ResolvedGraph.findRequestedVersion(resolve(c), AlignmentTask::isChanging);
+                if (version != null) {
+                    logger.info("Scan of {} isn't cacheable as configuration {} has a transitive dependency with a "
+                            + "dynamic or changing version {}", getProject(), c.getName(), version);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isChanging(String version) {
+        return StringUtils.isNotEmpty(version)
+                && (version.endsWith(SNAPSHOT) || DynamicVersionParser.isDynamic(version));
+    }
+
     @TaskAction
     public void perform() {
         final Project project = getProject();
         final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
-        final ManipulationCache cache = ManipulationCache.getCache(project);
-        final Path root = project.getRootDir().toPath();
-        final ManipulationModel alignmentModel = cache.getModel();
 
         // Only output the config once to avoid noisy logging.
         if (logger.isInfoEnabled() && !configOutput.get().getAndSet(true)) {
             logger.info("Configuration now has properties {}", configuration.dumpCurrentConfig());
         }
+        logger.info("Starting alignment task for project in directory '{}'", project.getProjectDir().getName());
+
+        final Map<ProjectRef, String> lockedVersions = LockFileIO
+                .lockedVersionsFromLockfiles(LockFileIO.getLocksRootPath(project));
+
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = getDependencies(project, configuration,
+                lockedVersions);
+        final DALookupPipeline pipeline = DALookupPipeline.getPipeline(project, configuration);
+
+        ScanResultIO.write(getScanResultFile(), dependencies);
+        if (pipeline != null) {
+            pipeline.submit(project, dependencies);
+        }
+    }
+
+    /**
+     * Stores the result of the scan in the {@link ManipulationCache} along with the project GAV and its
+     * repositories. This is performed by {@link AlignProjectTask} once every project has been scanned, as the scan
+     * itself may have been restored from the build cache rather than performed.
+     */
+    void register() {
+        final Project project = getProject();
+        final ManipulationCache cache = ManipulationCache.getCache(project);
+        final Path root = project.getRootDir().toPath();
+        final ManipulationModel alignmentModel = cache.getModel();
+
         final String archivesBaseName = ProjectUtils.getArchivesBaseName(project);
         if (archivesBaseName != null) {
             logger.warn("Found archivesBaseName override ; resetting project name '{}' to '{}' ", project.getName(),
@@ -148,7 +269,7 @@ public class AlignmentTask extends DefaultTask {
         String projectName = project.getName();
 
         final String currentProjectVersion = project.getVersion().toString();
-        logger.info("Starting alignment task for project in directory '{}' with GAV {}:{}:{}",
+        logger.info("Registering scan of project in directory '{}' with GAV {}:{}:{}",
                 project.getProjectDir().getName(), groupId, projectName, currentProjectVersion);
 
         // If processing the root project _and_ we have a Maven publication configured then verify artifactId / groupId.
@@ -184,255 +305,40 @@ public class AlignmentTask extends DefaultTask {
             }
         }
 
-        try {
-            final Set<ProjectVersionRef> lockFileDeps = LockFileIO
-                    .allProjectVersionRefsFromLockfiles(LockFileIO.getLocksRootPath(project));
-            final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = processAnyExistingManipulationFile(
-                    project,
-                    getDependencies(project, configuration, lockFileDeps));
-
-            logger.debug("For project {} adding to the cache the dependencies {}", project, dependencies); // TODO: Trace level?
-            cache.addDependencies(project, dependencies);
-
-            project.getRepositories().forEach(r -> cache.addRepository(r,
-                    org.jboss.gm.common.utils.FileUtils.relativize(root, project.getProjectDir().toPath())));
-            project.getBuildscript().getRepositories().forEach(r -> cache.addRepository(r,
-                    org.jboss.gm.common.utils.FileUtils.relativize(root, project.getProjectDir().toPath())));
-
-            if (StringUtils.isBlank(groupId) ||
-                    DEFAULT_VERSION.equals(currentProjectVersion)) {
-                logger.warn("Project '{}:{}:{}' is not fully defined ; skipping. ", groupId, projectName,
-                        currentProjectVersion);
-            } else {
-                ProjectVersionRef current = ProjectVersionFactory.withGAV(groupId, projectName,
-                        currentProjectVersion);
-
-                logger.debug("Adding {} to cache for scanning.", current);
-                cache.addGAV(project, current);
-            }
-
-            // when the set is empty, we know that this was the last alignment task to execute.
-            if (cache.removeProject(project)) {
-                align(configuration, cache, alignmentModel, rootProject);
-            } else {
-                logger.debug("Still have {} projects to scan", cache.getProjectCounterRemaining());
-            }
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = processAnyExistingManipulationFile(
+                project,
+                ScanResultIO.read(getScanResultFile()));
 
-            // this needs to happen for each project, not just the last one
-            LockFileIO.renameAllLockFiles(LockFileIO.getLocksRootPath(project));
+        logger.debug("For project {} adding to the cache the dependencies {}", project, dependencies); // TODO: Trace level?
+        cache.addDependencies(project, dependencies);
 
-        } catch (ManipulationException | IOException e) {
-            throw new ManipulationUncheckedException(e);
-        }
-    }
+        project.getRepositories().forEach(r -> cache.addRepository(r,
+                org.jboss.gm.common.utils.FileUtils.relativize(root, project.getProjectDir().toPath())));
+        project.getBuildscript().getRepositories().forEach(r -> cache.addRepository(r,
+                org.jboss.gm.common.utils.FileUtils.relativize(root, project.getProjectDir().toPath())));
 
-    /**
-     * Internal function to complete alignment - REST calls, file modifications etc after all projects are processed.
-     *
-     * @param configuration the current Configuration
-     * @param cache the cache object
-     * @param alignmentModel the current alignmentModel
-     * @param rootProject a pointer to the root Gradle project
-     * @throws ManipulationException if an error occurs
-     * @throws IOException if an error occurs
-     */
-    private void align(Configuration configuration, ManipulationCache cache, ManipulationModel alignmentModel,
-            Project rootProject) throws ManipulationException, IOException {
-        logger.info("Completed scanning {} projects; now processing for exclusions/REST/overrides...",
-                cache.getDependencies().size());
-        final List<ProjectVersionRef> allDeps = cache.getDependencies().values().stream()
-                .flatMap(m -> m.values().stream()).collect(Collectors.toList());
-
-        final AlignmentService alignmentService = AlignmentServiceFactory
-                .getAlignmentService(configuration, cache.getDependencies().keySet());
-
-        final Response alignmentResponse = alignmentService.align(
-                new AlignmentService.Request(cache.getProjectVersionRefs(configuration.versionSuffixSnapshot()),
-                        allDeps));
-
-        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
-                .getDependencies();
-        final String newVersion = alignmentResponse.getNewProjectVersion();
-
-        // While we've completed processing (sub)projects the current one is not going to be the root; so
-        // explicitly retrieve it and set its version.
-        if (configuration.versionModificationEnabled()) {
-            logger.info("Updating model version for {} from {} to {}", rootProject,
-                    rootProject.getVersion(), newVersion);
-            alignmentModel.setVersion(newVersion);
-        }
-        // Even if version modification is disabled, set the original version for consistency in the JSON file.
-        final Optional<Project> originalVersion = rootProject.getAllprojects()
-                .stream()
-                .filter(p -> !DEFAULT_VERSION.equals(
-                        p.getVersion().toString()))
-                .findAny();
-        if (originalVersion.isPresent()) {
-            alignmentModel.setOriginalVersion(originalVersion.get().getVersion().toString());
+        if (StringUtils.isBlank(groupId) ||
+                DEFAULT_VERSION.equals(currentProjectVersion)) {
+            logger.warn("Project '{}:{}:{}' is not fully defined ; skipping. ", groupId, projectName,
+                    currentProjectVersion);
         } else {
-            throw new ManipulationUncheckedException("Unable to locate a suitable original version");
-        }
+            ProjectVersionRef current = ProjectVersionFactory.withGAV(groupId, projectName,
+                    currentProjectVersion);
 
-        final Set<ProjectVersionRef> nonAligned = new HashSet<>();
-        // Iterate through all modules and set their version
-        projectDependencies.forEach((key, value) -> {
-            final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(key);
-            if (configuration.versionModificationEnabled()) {
-                logger.info("Updating sub-project {} (path: {}) from version {} to {}",
-                        correspondingModule, correspondingModule.getProjectPathName(), value, newVersion);
-                correspondingModule.setVersion(newVersion);
-            }
-            updateModuleDynamicDependencies(correspondingModule, value);
-            updateModuleDependencies(correspondingModule, value, alignmentResponse);
-        });
-
-        // artifactId / rootProject.getName
-        final String artifactId = SettingsFileIO.writeProjectNameIfNeeded(getProject().getRootDir());
-        if (!isEmpty(artifactId)) {
-            logger.debug("Located artifactId ({}) for {}::{}", artifactId, alignmentModel.getGroup(),
-                    alignmentModel.getVersion());
-            alignmentModel.setName(artifactId);
+            logger.debug("Adding {} to cache for scanning.", current);
+            cache.addGAV(project, current);
         }
 
-        // groupId
-        if (isEmpty(alignmentModel.getGroup())) {
-            final Set<String> candidates = cache.getModel().getChildren()
-                    .values()
-                    .stream().map(ManipulationModel::getGroup)
-                    .filter(StringUtils::isNotBlank)
-                    .collect(Collectors.toSet());
-
-            logger.debug("Found potential candidates of {} to establish a groupId.", candidates);
-            final String commonPrefix = StringUtils.stripEnd(StringUtils.getCommonPrefix(candidates
-                    .toArray(new String[0])), ".");
-
-            if (isEmpty(commonPrefix)) {
-                throw new ManipulationException(
-                        "Empty groupId but unable to determine a suitable replacement from any child modules.");
-            }
-
-            logger.warn("groupId for {} ({}) is empty. Defaulting to common prefix of '{}'", rootProject,
-                    rootProject.getProjectDir(), commonPrefix);
-            alignmentModel.setGroup(commonPrefix);
-        }
-
-        logger.info("Completed processing for alignment and writing {}", cache);
-        GroovyUtils.runCustomGroovyScript(logger, InvocationStage.LAST, rootProject.getRootDir(), configuration,
-                rootProject,
-                alignmentModel);
-        writeManipulationModel(rootProject.getRootDir(), alignmentModel);
-        // Ordering is important here ; we mustn't inject the gme-repos file before iterating over all *.gradle
-        // files.
-        updateAllExtraGradleFilesWithGmeRepos();
-
-        logger.info("For project script is {}  and build file {}", rootProject.getBuildscript(), rootProject.getBuildFile());
-        logger.info("For project {}", rootProject.getBuildscript().getSourceFile());
-        writeGmeMarkerFile(configuration, rootProject.getBuildFile());
-        writeGmeConfigMarkerFile(rootProject.getBuildFile());
-        writeGmeReposMarkerFile();
-        writeRepositorySettingsFile(cache.getRepositories());
-        processAlignmentReport(rootProject, configuration, cache, nonAligned);
-    }
-
-    private void writeGmeMarkerFile(Configuration configuration, File rootGradle) throws IOException, ManipulationException {
-        File rootDir = getProject().getRootDir();
-        File gmeGradle = new File(rootDir, GME);
-        Files.copy(getClass().getResourceAsStream('/' + GME), gmeGradle.toPath(),
-                StandardCopyOption.REPLACE_EXISTING);
-
-        if (!isEmpty(configuration.manipulationVersion())) {
-            String gmeGradleString = FileUtils.readFileToString(gmeGradle, Charset.defaultCharset());
-            String currentVersion = gmeGradleString.replaceFirst(
-                    "(?s).*(classpath \"org.jboss.gm:manipulation:)([0-9]+\\.[0-9]+(-SNAPSHOT)??)\".*", "$2");
-            logger.info("Replacing version {} with {} for the ManipulationPlugin", currentVersion,
-                    configuration.manipulationVersion());
-            FileUtils.writeStringToFile(gmeGradle,
-                    gmeGradleString.replaceFirst(currentVersion, configuration.manipulationVersion()),
-                    Charset.defaultCharset());
-        }
-
-        if (rootGradle.exists()) {
-
-            List<String> lines = FileUtils.readLines(rootGradle, Charset.defaultCharset());
-            List<String> result = new ArrayList<>();
-
-            String injectedLine = rootGradle.getName().endsWith(".kts") ? INJECT_GME_START_KOTLIN : INJECT_GME_START;
-            String first = org.jboss.gm.common.utils.FileUtils.getFirstLine(lines);
-            logger.debug("Read first line '{}' from {}", first, rootGradle);
-
-            // Check if the first non-blank line is the gme phrase, otherwise inject it.
-            if (!injectedLine.equals(first.trim())) {
-                result.add(System.lineSeparator());
-                result.add(injectedLine);
-                result.add(System.lineSeparator());
-                result.addAll(lines);
-
-                FileUtils.writeLines(rootGradle, result);
-            }
-
+        // The aggregate phase (REST call, file writing etc.) is performed once by AlignProjectTask after all
+        // the projects have been scanned.
+        if (cache.removeProject(project)) {
+            logger.debug("Completed scanning all projects");
         } else {
-            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+            logger.debug("Still have {} projects to scan", cache.getProjectCounterRemaining());
         }
-    }
 
-    private void writeGmeConfigMarkerFile(File rootGradle) throws IOException {
-        File rootDir = getProject().getRootDir();
-        File gmePluginConfigsGradle = new File(rootDir, GME_PLUGINCONFIGS);
-        Files.copy(getClass().getResourceAsStream('/' + GME_PLUGINCONFIGS), gmePluginConfigsGradle.toPath(),
-                StandardCopyOption.REPLACE_EXISTING);
-
-        if (rootGradle.exists()) {
-
-            String injectedLine = rootGradle.getName().endsWith(".kts") ? INJECT_GME_END_KOTLIN : INJECT_GME_END;
-            String line = org.jboss.gm.common.utils.FileUtils.getLastLine(rootGradle);
-            logger.debug("Read last line '{}' from {}", line, rootGradle);
-
-            if (!line.trim().equals(injectedLine)) {
-                // Haven't appended it before.
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(rootGradle, true))) {
-                    // Ensure the marker is on a line by itself.
-                    writer.newLine();
-                    writer.write(injectedLine);
-                    writer.newLine();
-                    writer.flush();
-                }
-            }
-        } else {
-            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
-        }
-    }
-
-    @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void writeGmeReposMarkerFile() throws IOException {
-        File rootDir = getProject().getRootDir();
-        File gradleDir = new File(rootDir, GRADLE);
-        gradleDir.mkdir();
-        File gmeReposGradle = new File(gradleDir, GME_REPOS);
-
-        Files.copy(getClass().getResourceAsStream('/' + GME_REPOS), gmeReposGradle.toPath(),
-                StandardCopyOption.REPLACE_EXISTING);
-    }
-
-    private void updateAllExtraGradleFilesWithGmeRepos() throws IOException, ManipulationException {
-        final File rootDir = getProject().getRootDir();
-        final File gradleScriptsDirectory = rootDir.toPath().resolve(GRADLE).toFile();
-        if (!gradleScriptsDirectory.exists()) {
-            return;
-        }
-        final Collection<File> extraGradleScripts = FileUtils.listFiles(gradleScriptsDirectory,
-                FileFilterUtils.and(new SuffixFileFilter(".gradle"), new NotFileFilter(new NameFileFilter(GME_REPOS))),
-                DirectoryFileFilter.DIRECTORY);
-        for (File extraGradleScript : extraGradleScripts) {
-            final List<String> lines = FileUtils.readLines(extraGradleScript, Charset.defaultCharset());
-
-            if (!APPLY_GME_REPOS.equals(org.jboss.gm.common.utils.FileUtils.getFirstLine(lines))) {
-                final List<String> result = new ArrayList<>(lines.size() + 2);
-                result.add(APPLY_GME_REPOS);
-                result.add(System.lineSeparator());
-                result.addAll(lines);
-                FileUtils.writeLines(extraGradleScript, result);
-            }
-        }
+        // this needs to happen for each project, not just the last one
+        LockFileIO.renameAllLockFiles(LockFileIO.getLocksRootPath(project));
     }
 
     /**
@@ -448,369 +354,290 @@ public class AlignmentTask extends DefaultTask {
     }
 
     private Map<RelaxedProjectVersionRef, ProjectVersionRef> getDependencies(Project project, Configuration internalConfig,
-            Set<ProjectVersionRef> lockFileDeps) {
+            Map<ProjectRef, String> lockedVersions) {
 
-        final Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new HashMap<>();
-        project.getConfigurations().all(configuration -> {
-            if (configuration.isCanBeResolved()) {
-
-                logger.debug("Examining configuration {}", configuration.getName());
-
-                // using getAllDependencies here instead of getDependencies because the latter
-                // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
-                final DependencySet allDependencies = configuration.getAllDependencies();
-                final Set<ProjectDependency> allProjectDependencies = allDependencies
-                        .stream()
-                        .filter(d -> ProjectDependency.class.isAssignableFrom(d.getClass()))
-                        .map(ProjectDependency.class::cast)
-                        .collect(Collectors.toSet());
-
-                if (configuration.getResolutionStrategy() instanceof DefaultResolutionStrategy) {
-                    DefaultResolutionStrategy defaultResolutionStrategy = (DefaultResolutionStrategy) configuration
-                            .getResolutionStrategy();
-
-                    if (defaultResolutionStrategy.getConflictResolution() == ConflictResolution.strict) {
-                        // failOnVersionConflict() sets this which causes our plugin to crash out. Reset to latest to make an attempt
-                        // at continuing. As Gradle creates 'decorated', we can't use reflection to change the value
-                        // back to the default. Therefore, use preferProjectModules as its not eager-fail.
-                        logger.warn("Detected use of conflict resolution strategy strict ; resetting to preferProjectModules.");
-                        defaultResolutionStrategy.preferProjectModules();
-                    }
-                }
+        final List<String> skipped = new ArrayList<>();
+        final List<org.gradle.api.artifacts.Configuration> configurations = getResolvableConfigurations(project,
+                internalConfig, skipped);
 
-                // If we have dependency constraints we can get a ClassCastException when attempting to copy the configurations.
-                // This is due to an unchecked cast in
-                // org.gradle.api.internal.artifacts.configurations.DefaultConfiguration::createCopy { ...
-                // copiedDependencyConstraints.add(((DefaultDependencyConstraint) dependencyConstraint).copy());
-                // ... }
-                // When our constraint is a DefaultProjectDependencyConstraint this is a problem. Therefore, as we normally
-                // need to copy the configurations to ensure we resolve all dependencies (See
-                // analyzer/src/functTest/java/org/jboss/gm/analyzer/alignment/DynamicWithLocksProjectFunctionalTest.java for
-                // an example) first verify if DefaultProjectDependencyConstraint occurs in the list of constraints.
-                LenientConfiguration lenient;
-                if (configuration
-                        .getAllDependencyConstraints().stream()
-                        .noneMatch(AlignmentTask::isDefaultProjectDependencyConstraint)) {
-                    lenient = configuration.copyRecursive().getResolvedConfiguration().getLenientConfiguration();
-                } else {
-                    logger.warn("DefaultProjectDependencyConstraint found ({}), not copying configuration",
-                            configuration.getAllDependencyConstraints());
-                    lenient = configuration.getResolvedConfiguration().getLenientConfiguration();
-                }
+        relaxConflictResolution(configurations);
 
-                // We don't care about modules of the project being unresolvable at this stage. Had we not excluded them,
-                // we would get false negatives
-                final Set<UnresolvedDependency> unresolvedDependencies = getUnresolvedDependenciesExcludingProjectDependencies(
-                        lenient, allProjectDependencies);
-
-                if (!unresolvedDependencies.isEmpty()) {
-                    if (internalConfig.ignoreUnresolvableDependencies()) {
-                        logger.warn("For configuration {}; ignoring all unresolvable dependencies: {}",
-                                configuration.getName(),
-                                unresolvedDependencies);
-                    } else {
-
-                        logger.error("For configuration {}; unable to resolve all dependencies: {}",
-                                configuration.getName(),
-                                lenient.getUnresolvedModuleDependencies());
-                        for (UnresolvedDependency ud : unresolvedDependencies) {
-                            logger.error("Unresolved had problem in {} with ", ud.getSelector(), ud.getProblem());
-                        }
-                        throw new ManipulationUncheckedException(
-                                "For configuration {}, unable to resolve all project dependencies: {}",
-                                configuration.getName(), unresolvedDependencies);
-                    }
-                }
-                Set<ResolvedDependency> target;
-                if (internalConfig.overrideTransitive() == null || !internalConfig.overrideTransitive()) {
-                    if (internalConfig.overrideTransitive() == null &&
-                            project.getPluginManager().hasPlugin("com.github.johnrengelman.shadow")) {
-                        // Check for shadow jar configuration.
-                        throw new ManipulationUncheckedException(
-                                "Shadow plugin (for shading) configured but overrideTransitive has not been explicitly enabled or disabled.");
-                    }
-                    target = lenient.getFirstLevelModuleDependencies();
-                } else {
-                    target = lenient.getAllModuleDependencies();
-                    logger.debug("Returning all (including transitive) module dependencies for examination...");
-                }
-                target.forEach(dep -> {
-                    // skip dependencies on project modules
-                    if (Comparator.contains(allProjectDependencies, dep)) {
-                        project.getLogger().debug("Skipping internal project dependency {} of configuration {}",
-                                dep.toString(), configuration.getName());
-                        return;
-                    }
-                    if (dep.getModuleGroup().isEmpty()) {
-                        logger.warn("Ignoring dependency {} with no groupId for configuration {}",
-                                dep.getName(), configuration.getName());
-                        return;
-                    }
-
-                    String version = dep.getModuleVersion(); // this is the resolved version from gradle
-                    // if the dependency is present in any of the lockfiles, then we use that version
-                    for (ProjectVersionRef lockFileDep : lockFileDeps) {
-                        if (lockFileDep.getGroupId().equals(dep.getModuleGroup())
-                                && lockFileDep.getArtifactId().equals(dep.getModuleName())) {
-                            version = lockFileDep.getVersionString();
-                        }
-                    }
-                    ProjectVersionRef pvr = ProjectVersionFactory.withGAV(dep.getModuleGroup(), dep.getModuleName(),
-                            version);
-
-                    List<Dependency> originalDeps = allDependencies.stream()
-                            .filter(d -> StringUtils.equals(d.getGroup(), dep.getModuleGroup()) &&
-                                    StringUtils.equals(d.getName(), dep.getModuleName()))
-                            .collect(Collectors.toList());
-
-                    // Not sure this can ever happen - would mean we have GA with multiple V.
-                    if (originalDeps.size() > 1) {
-                        logger.error("Found duplicate matching original dependencies {} for {}", originalDeps, dep);
-                    }
-
-                    RelaxedProjectVersionRef relaxedProjectVersionRef;
-                    // If we haven't found any original dependency, or its' version is empty, we'll default to
-                    // the current resolved dependency value. This might be possible if the dependency has come from
-                    // a lock file or the version comes from a BOM.
-                    if (originalDeps.isEmpty() || StringUtils.isBlank(originalDeps.get(0).getVersion())) {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
-                    } else {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
-                    }
-
-                    if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
-                        logger.debug("For {}, with original key {}, adding dependency to scan {}", configuration,
-                                relaxedProjectVersionRef, pvr);
-                    }
-
-                });
+        if (!skipped.isEmpty()) {
+            logger.info("For project {}; avoided resolution of {} out of {} resolvable configurations: {}", project,
+                    skipped.size(), skipped.size() + configurations.size(), skipped);
+        }
 
-            } else {
-                logger.trace("Unable to resolve configuration {} for project {}", configuration.getName(), project);
-            }
-        });
+        // Configurations are resolved one at a time on the task thread, as Gradle requires.
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new HashMap<>();
+        configurations.forEach(c -> depMap.putAll(resolveConfiguration(project, internalConfig, lockedVersions, c)));
 
         return depMap;
     }
 
-    private Set<UnresolvedDependency> getUnresolvedDependenciesExcludingProjectDependencies(LenientConfiguration lenient,
-            Set<ProjectDependency> allProjectModules) {
-        return lenient.getUnresolvedModuleDependencies()
-                .stream()
-                .filter(d -> !Comparator.contains(allProjectModules, d))
-                .collect(Collectors.toSet());
-    }
-
-    private void updateModuleDynamicDependencies(ManipulationModel correspondingModule,
-            Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies) {
-
-        allModuleDependencies.forEach((d, p) -> {
-            // we need to make sure that dynamic dependencies are stored with their original key
-            // in order for the manipulation plugin to be able to look them up properly
-            if (isNotBlank(d.getVersionString()) && DynamicVersionParser.isDynamic(d.getVersionString())) {
-                correspondingModule.getAlignedDependencies().put(d.toString(), p);
-            }
-        });
-    }
-
     /**
-     * This does the actual substitution replacing the dependencies with aligned version if it exists
+     * The strict conflict resolution strategy (set by <code>failOnVersionConflict()</code>) would fail the resolution
+     * so it is replaced before the configurations are resolved.
      *
-     * @param correspondingModule the module we are working on
-     * @param allModuleDependencies the collection of dependencies
-     * @param alignmentResponse the response which (possibly) contains overrides and DA information
+     * @param configurations the configurations that are about to be resolved
      */
-    private void updateModuleDependencies(ManipulationModel correspondingModule,
-            Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies, Response alignmentResponse) {
-
-        allModuleDependencies.forEach((d, p) -> {
-            final String newDependencyVersion = alignmentResponse.getAlignedVersionOfGav(p);
-            if (!StringUtils.isEmpty(newDependencyVersion)) {
-                logger.debug("In module {} with GAV {} found a replacement version of {}",
-                        correspondingModule.getProjectPathName(), p, newDependencyVersion);
-
-                final ProjectVersionRef newVersion = ProjectVersionFactory.withNewVersion(p, newDependencyVersion);
-                // we need to make sure that dynamic dependencies are stored with their original key
-                // in order for the manipulation plugin to be able to look them up properly
-                correspondingModule.getAlignedDependencies().put(d.toString(), newVersion);
+    private void relaxConflictResolution(List<org.gradle.api.artifacts.Configuration> configurations) {
+        for (org.gradle.api.artifacts.Configuration configuration : configurations) {
+            if (configuration.getResolutionStrategy() instanceof DefaultResolutionStrategy) {
+                DefaultResolutionStrategy defaultResolutionStrategy = (DefaultResolutionStrategy) configuration
+                        .getResolutionStrategy();
+
+                if (defaultResolutionStrategy.getConflictResolution() == ConflictResolution.strict) {
+                    // failOnVersionConflict() sets this which causes our plugin to crash out. Reset to latest to make
+                    // an attempt at continuing. As Gradle creates 'decorated', we can't use reflection to change
+                    // the value back to the default. Therefore, use preferProjectModules as its not eager-fail.
+                    logger.warn("Detected use of conflict resolution strategy strict ; resetting to "
+                            + "preferProjectModules.");
+                    defaultResolutionStrategy.preferProjectModules();
+                }
             }
-        });
+        }
     }
 
     /**
-     * Writes a maven settings file containing artifact repositories used by this project.
+     * Returns the resolvable configurations of the project that are accepted by the configuration filter.
      *
-     * @param repositories A map of repositories to the file path where it occurred.
+     * @param project the current project
+     * @param internalConfig the current Configuration
+     * @param skipped if not null, the names of the resolvable configurations rejected by the filter are added to this
+     * @return the configurations to resolve
      */
-    private void writeRepositorySettingsFile(Map<ArtifactRepository, Path> repositories) {
-        Configuration config = ConfigCache.getOrCreate(Configuration.class);
-
-        String repositoriesFilePath = config.repositoriesFile();
-        if (!isEmpty(repositoriesFilePath)) {
-            File repositoriesFile;
-            if (Paths.get(repositoriesFilePath).isAbsolute()) {
-                repositoriesFile = new File(repositoriesFilePath);
+    private List<org.gradle.api.artifacts.Configuration> getResolvableConfigurations(Project project,
+            Configuration internalConfig, List<String> skipped) {
+        final ConfigurationFilter filter = new ConfigurationFilter(internalConfig.configurationIncludes(),
+                internalConfig.configurationExcludes());
+        final List<org.gradle.api.artifacts.Configuration> result = new ArrayList<>();
+
+        project.getConfigurations().all(configuration -> {
+            if (configuration.isCanBeResolved() && !filter.accept(configuration.getName())) {
+                logger.debug("Skipping filtered configuration {} for project {}", configuration.getName(), project);
+                if (skipped != null) {
+                    skipped.add(configuration.getName());
+                }
+            } else if (configuration.isCanBeResolved()) {
+                result.add(configuration);
             } else {
-                repositoriesFile = new File(getProject().getRootDir(), repositoriesFilePath);
+                logger.trace("Unable to resolve configuration {} for project {}", configuration.getName(), project);
             }
-
-            RepositoryExporter.export(repositories, repositoriesFile);
-        } else {
-            logger.info("Repository export disabled.");
-        }
+        });
+        return result;
     }
 
-    private Map<RelaxedProjectVersionRef, ProjectVersionRef> processAnyExistingManipulationFile(Project project,
-            Map<RelaxedProjectVersionRef, ProjectVersionRef> allDependencies) {
+    private Map<RelaxedProjectVersionRef, ProjectVersionRef> resolveConfiguration(Project project,
+            Configuration internalConfig, Map<ProjectRef, String> lockedVersions,
+            org.gradle.api.artifacts.Configuration configuration) {
 
-        File m = new File(project.getRootDir(), ManipulationIO.MANIPULATION_FILE_NAME);
+        logger.debug("Examining configuration {}", configuration.getName());
 
-        if (!m.exists()) {
-            return allDependencies;
+        // using getAllDependencies here instead of getDependencies because the latter
+        // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
+        final DependencySet allDependencies = configuration.getAllDependencies();
+        final Set<List<String>> allProjectDependencies = Comparator.toGAVs(allDependencies
+                .stream()
+                .filter(d -> ProjectDependency.class.isAssignableFrom(d.getClass()))
+                .map(ProjectDependency.class::cast)
+                .collect(Collectors.toSet()));
+        final Map<ProjectRef, List<Dependency>> originalDependencies = indexByModule(configuration, allDependencies);
+
+        final boolean transitive = internalConfig.overrideTransitive() != null && internalConfig.overrideTransitive();
+        if (internalConfig.overrideTransitive() == null &&
+                project.getPluginManager().hasPlugin("com.github.johnrengelman.shadow")) {
+            // Check for shadow jar configuration.
+            throw new ManipulationUncheckedException("Shadow plugin (for shading) configured but overrideTransitive "
+                    + "has not been explicitly enabled or disabled.");
+        }
+        if (transitive) {
+            logger.debug("Returning all (including transitive) module dependencies for examination...");
         }
 
-        // If there is an existing manipulation file, also use this as potential candidates.
-        final ManipulationModel manipulationModel = ManipulationIO.readManipulationModel(project.getRootProject().getRootDir())
-                .findCorrespondingChild(project);
-
-        Map<String, ProjectVersionRef> aligned = manipulationModel.getAlignedDependencies();
-
-        for (Map.Entry<String, ProjectVersionRef> modelDependencies : aligned.entrySet()) {
-
-            // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV right now.
-            if (StringUtils.countMatches(modelDependencies.getKey(), ":") == 2) {
-
-                ProjectVersionRef originalPvr = SimpleProjectVersionRef.parse(modelDependencies.getKey());
-
-                for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
-
-                    RelaxedProjectVersionRef d = entry.getKey();
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new LinkedHashMap<>();
+        final List<UnresolvedDependencyResult> unresolvedDependencies = new ArrayList<>();
+        final ResolvedGraph.Visitor visitor = new ResolvedGraph.Visitor() {
+            @Override
+            public void visitModule(ModuleVersionIdentifier module, boolean firstLevel) {
+                if (transitive || firstLevel) {
+                    addDependency(configuration, lockedVersions, allProjectDependencies, originalDependencies,
+                            depMap, module);
+                }
+            }
 
-                    if (d.equals(originalPvr)) {
+            @Override
+            public void visitUnresolved(UnresolvedDependencyResult dependency) {
+                // We don't care about modules of the project being unresolvable at this stage. Had we not excluded
+                // them, we would get false negatives
+                if (!Comparator.contains(allProjectDependencies, dependency.getAttempted())) {
+                    unresolvedDependencies.add(dependency);
+                }
+            }
 
-                        if (!modelDependencies.getValue().getVersionString().equals(entry.getValue().getVersionString())) {
+            @Override
+            public void visitProject(String path) {
+                logger.debug("For configuration {}; skipping internal project {}", configuration.getName(), path);
+            }
+        };
+
+        // Configurations with identical dependencies (e.g. the compileClasspath of sibling projects) produce the same
+        // graph, so reuse any completed resolution with the same fingerprint. Resolutions still in progress in other
+        // projects are never waited upon as that could deadlock against the project locks Gradle holds when running
+        // with --parallel ; at worst the graph is resolved twice. Otherwise it is streamed directly to the visitor.
+        final String fingerprint = internalConfig.deduplicateResolution()
+                ? ConfigurationFingerprint.of(project, configuration)
+                : null;
+        if (fingerprint == null) {
+            ResolvedGraph.walk(resolve(configuration), visitor);
+        } else {
+            final ManipulationCache cache = ManipulationCache.getCache(project);
+            ResolvedGraph graph = cache.getResolution(fingerprint);
+            if (graph == null) {
+                graph = cache.addResolution(fingerprint, ResolvedGraph.collect(resolve(configuration), transitive));
+            } else {
+                logger.debug("Reusing resolution of identical configuration for {} in project {}",
+                        configuration.getName(), project);
+            }
+            graph.accept(visitor);
+        }
 
-                            logger.info("Using existing model to update {} to {}", entry.getValue(),
-                                    modelDependencies.getValue());
+        if (!unresolvedDependencies.isEmpty()) {
+            if (internalConfig.ignoreUnresolvableDependencies()) {
+                logger.warn("For configuration {}; ignoring all unresolvable dependencies: {}",
+                        configuration.getName(),
+                        unresolvedDependencies);
+            } else {
 
-                            allDependencies.put(d, modelDependencies.getValue());
-                            break;
-                        }
-                    }
+                logger.error("For configuration {}; unable to resolve all dependencies: {}",
+                        configuration.getName(),
+                        unresolvedDependencies);
+                for (UnresolvedDependencyResult ud : unresolvedDependencies) {
+                    logger.error("Unresolved had problem in {} with ", ud.getAttempted(), ud.getFailure());
                 }
+                throw new ManipulationUncheckedException(
+                        "For configuration {}, unable to resolve all project dependencies: {}",
+                        configuration.getName(), unresolvedDependencies);
             }
         }
-        return allDependencies;
+        return depMap;
     }
 
-    private void writeReport(Path outputDir, String filename, String text) throws ManipulationException {
-        final Path reportFile = outputDir.resolve(filename);
-
-        try {
-            logger.debug("Writing to file {}", reportFile);
-            Files.createDirectories(outputDir);
-            FileUtils.writeStringToFile(reportFile.toFile(), text, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new ManipulationException("Unable to write " + reportFile, e);
+    private void addDependency(org.gradle.api.artifacts.Configuration configuration,
+            Map<ProjectRef, String> lockedVersions, Set<List<String>> allProjectDependencies,
+            Map<ProjectRef, List<Dependency>> originalDependencies,
+            Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap, ModuleVersionIdentifier dep) {
+        // skip dependencies on project modules
+        if (Comparator.contains(allProjectDependencies, dep)) {
+            logger.debug("Skipping internal project dependency {} of configuration {}", dep, configuration.getName());
+            return;
+        }
+        if (dep.getGroup().isEmpty()) {
+            logger.warn("Ignoring dependency {} with no groupId for configuration {}",
+                    dep.getName(), configuration.getName());
+            return;
         }
-    }
-
-    private void processAlignmentReport(Project project, Configuration configuration, ManipulationCache cache,
-            Set<ProjectVersionRef> nonAligned) throws ManipulationException, IOException {
-        final ManipulationModel alignmentModel = cache.getModel();
-        final String originalGa = alignmentModel.getGroup() + ":" + alignmentModel.getName();
-        final StringBuilder builder = new StringBuilder(500);
-        final PME jsonReport = new PME();
-        final List<ModulesItem> modules = jsonReport.getModules();
-        final ProjectVersionRef pvr = SimpleProjectVersionRef.parse(originalGa + ":" + alignmentModel.getVersion());
-        final GAV g = new GAV();
-        final String originalGav = originalGa + ":" + alignmentModel.getOriginalVersion();
-        g.setOriginalGAV(originalGav);
-        g.setPVR(pvr);
-        jsonReport.setGav(g);
-
-        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
-                .getDependencies();
-        final Set<Map.Entry<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>>> entrySet = projectDependencies
-                .entrySet();
-
-        for (Map.Entry<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> entry : entrySet) {
-            final Project name = entry.getKey();
-            final Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies = entry.getValue();
-            final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(name);
-            final String group = correspondingModule.getGroup().isEmpty() ? alignmentModel.getGroup()
-                    : correspondingModule.getGroup();
-            final String ga = group + ":" + correspondingModule.getName();
-            final String v = correspondingModule.getOriginalVersion() == null ? alignmentModel.getOriginalVersion()
-                    : correspondingModule.getOriginalVersion();
-            final String newModuleVersion = correspondingModule.getVersion();
-            final String newModuleGav = ga + ":" + newModuleVersion;
-            append(builder, "------------------- project {} (path: {})", ga, name.getPath());
-
-            if (!v.equals(newModuleVersion)) {
-                append(builder, "\tProject version : {} --> {}", v, newModuleVersion);
-            }
 
-            builder.append(System.lineSeparator());
-            final ModulesItem module = new ModulesItem();
-            final String originalModuleGav = ga + ":" + v;
-            module.getGav().setOriginalGAV(originalModuleGav);
-            module.getGav().setPVR(SimpleProjectVersionRef.parse(newModuleGav));
-            modules.add(module);
-            final Map<String, ProjectVersionRef> dependencies = new LinkedHashMap<>();
-            final boolean reportNonAligned = configuration.reportNonAligned();
-            final Set<Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef>> allModuleDependenciesEntrySet = allModuleDependencies
-                    .entrySet();
-
-            for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> e : allModuleDependenciesEntrySet) {
-                final RelaxedProjectVersionRef d = e.getKey();
-                final ProjectVersionRef p = e.getValue();
-                final ProjectVersionRef newDependencyVersion = correspondingModule.getAlignedDependencies()
-                        .get(d.toString());
-                logger.debug("In module {} with GAV {} found a replacement version of {}",
-                        correspondingModule.getProjectPathName(), p, newDependencyVersion);
-
-                if (newDependencyVersion == null) {
-                    if (reportNonAligned) {
-                        nonAligned.add(d);
-                    }
-                } else {
-                    dependencies.put(d.toString(), newDependencyVersion);
-                }
-            }
+        final ProjectRef ga = new SimpleProjectRef(dep.getGroup(), dep.getName());
+        // this is the resolved version from gradle ; if the dependency is present in any of the lockfiles, then we
+        // use that version
+        final String version = lockedVersions.getOrDefault(ga, dep.getVersion());
+        final ProjectVersionRef pvr = ProjectVersionFactory.withGAV(dep.getGroup(), dep.getName(), version);
+        final List<Dependency> originalDeps = originalDependencies.getOrDefault(ga, Collections.emptyList());
+
+        RelaxedProjectVersionRef relaxedProjectVersionRef;
+        // If we haven't found any original dependency, or its' version is empty, we'll default to
+        // the current resolved dependency value. This might be possible if the dependency has come from
+        // a lock file or the version comes from a BOM.
+        if (originalDeps.isEmpty() || StringUtils.isBlank(originalDeps.get(0).getVersion())) {
+            relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
+        } else {
+            relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
+        }
 
-            if (!dependencies.isEmpty()) {
-                module.getDependencies().putAll(dependencies);
-                final Set<Map.Entry<String, ProjectVersionRef>> dependenciesEntrySet = dependencies.entrySet();
+        if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
+            logger.debug("For {}, with original key {}, adding dependency to scan {}", configuration,
+                    relaxedProjectVersionRef, pvr);
+        }
+    }
 
-                for (Map.Entry<String, ProjectVersionRef> dependencyEntry : dependenciesEntrySet) {
-                    final String p = dependencyEntry.getKey();
-                    final ProjectVersionRef newDependencyVersion = dependencyEntry.getValue();
-                    append(builder, "\tDependencies : {} --> {}", p, newDependencyVersion);
-                }
+    /**
+     * Indexes the declared dependencies of a configuration by their group and name, preserving declaration order.
+     * Dependencies without a group or name (e.g. file dependencies) can't match a resolved module and are omitted.
+     *
+     * @param configuration the configuration being examined
+     * @param allDependencies all the dependencies declared in the configuration
+     * @return the declared dependencies for each group and name
+     */
+    private Map<ProjectRef, List<Dependency>> indexByModule(org.gradle.api.artifacts.Configuration configuration,
+            DependencySet allDependencies) {
+        final Map<ProjectRef, List<Dependency>> result = new HashMap<>();
+
+        for (Dependency dependency : allDependencies) {
+            if (StringUtils.isNotBlank(dependency.getGroup()) && StringUtils.isNotBlank(dependency.getName())) {
+                result.computeIfAbsent(new SimpleProjectRef(dependency.getGroup(), dependency.getName()),
+                        k -> new ArrayList<>()).add(dependency);
             }
-
-            if (!nonAligned.isEmpty()) {
-                for (ProjectVersionRef na : nonAligned) {
-                    append(builder, "\tNon-Aligned Dependencies : {}", na);
-                }
+        }
+        result.forEach((ga, dependencies) -> {
+            if (dependencies.stream().map(Dependency::getVersion).distinct().count() > 1) {
+                logger.error("For configuration {}; found duplicate declarations of {} with different versions {}",
+                        configuration.getName(), ga, dependencies);
             }
+        });
+        return result;
+    }
 
-            if (!dependencies.isEmpty() || !nonAligned.isEmpty()) {
-                builder.append(System.lineSeparator());
+    /**
+     * Resolves the configuration, returning the root of its resolution result. The configuration itself is resolved,
+     * rather than a copy, unless it uses dependency locking. Gradle reads the lock state by configuration name, so a
+     * copy (which has a different name) resolves without the locks. That ensures all dependencies are resolved (see
+     * analyzer/src/functTest/java/org/jboss/gm/analyzer/alignment/DynamicWithLocksProjectFunctionalTest.java for an
+     * example) and the locked versions are instead applied from the lockfiles.
+     *
+     * @param configuration the configuration to resolve
+     * @return the root of the resolved graph
+     */
+    private ResolvedComponentResult resolve(org.gradle.api.artifacts.Configuration configuration) {
+        // If we have dependency constraints we can get a ClassCastException when attempting to copy the configurations.
+        // This is due to an unchecked cast in
+        // org.gradle.api.internal.artifacts.configurations.DefaultConfiguration::createCopy { ...
+        // copiedDependencyConstraints.add(((DefaultDependencyConstraint) dependencyConstraint).copy());
+        // ... }
+        // When our constraint is a DefaultProjectDependencyConstraint this is a problem, so never copy those.
+        org.gradle.api.artifacts.Configuration target = configuration;
+        if (ConfigurationFingerprint.usesDependencyLocking(configuration)) {
+            if (configuration
+                    .getAllDependencyConstraints().stream()
+                    .noneMatch(AlignmentTask::isDefaultProjectDependencyConstraint)) {
+                target = configuration.copyRecursive();
+            } else {
+                logger.warn("DefaultProjectDependencyConstraint found ({}), not copying configuration",
+                        configuration.getAllDependencyConstraints());
             }
         }
+        return target.getIncoming().getResolutionResult().getRoot();
+    }
+
+    private Map<RelaxedProjectVersionRef, ProjectVersionRef> processAnyExistingManipulationFile(Project project,
+            Map<RelaxedProjectVersionRef, ProjectVersionRef> allDependencies) {
 
-        final String reportText = builder.toString();
-        logger.info("{}{}", System.lineSeparator(), reportText);
-        final Path outputDir = project.getRootProject().getBuildDir().toPath();
+        // If there is an existing manipulation file, also use this as potential candidates.
+        final Map<ProjectVersionRef, ProjectVersionRef> aligned = ManipulationCache.getCache(project)
+                .getExistingAlignedDependencies(project);
 
-        if (!StringUtils.isEmpty(configuration.reportTxtOutputFile())) {
-            writeReport(outputDir, configuration.reportTxtOutputFile(), reportText);
+        if (aligned.isEmpty()) {
+            return allDependencies;
         }
+        for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
+            final ProjectVersionRef existing = aligned.get(entry.getKey());
+
+            if (existing != null && !existing.getVersionString().equals(entry.getValue().getVersionString())) {
+                logger.info("Using existing model to update {} to {}", entry.getValue(), existing);
 
-        if (!StringUtils.isEmpty(configuration.reportJsonOutputFile())) {
-            writeReport(outputDir, configuration.reportJsonOutputFile(), JSONUtils.jsonToString(jsonReport));
+                entry.setValue(existing);
+            }
         }
+        return allDependencies;
     }
+
 }
@@ -0,0 +1,95 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.common.logging.GMLogger;
+
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOMREST;
+
+/**
+ * An implementation of {@link AlignmentService} that aligns dependencies with the versions managed by BOMs (see
+ * {@link org.jboss.gm.analyzer.alignment.io.BomIO}), held within a map keyed by group and artifact, rather than by
+ * calling the Dependency Analyzer service.
+ * <p>
+ * As with PME, the BOM versions may be combined with those of another service (typically
+ * {@link DAAlignmentService}):
+ * <ul>
+ * <li>BOM: only the BOM versions are used and no project version is looked up.</li>
+ * <li>BOMREST: the BOM versions take precedence ; only the GAVs not managed by the BOMs are sent to the other
+ * service.</li>
+ * <li>RESTBOM: the versions of the other service take precedence ; the BOM versions are used for any GAV it has no
+ * version for.</li>
+ * </ul>
+ */
+public class BomAlignmentService implements AlignmentService {
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final Map<ProjectRef, String> versions;
+
+    private final DependencyPrecedence precedence;
+
+    private final AlignmentService delegate;
+
+    /**
+     * Creates the service.
+     *
+     * @param versions the version of each managed dependency, keyed by its group and artifact
+     * @param precedence the dependency source
+     * @param delegate the service to combine the BOM versions with, or null to only use the BOM versions
+     */
+    public BomAlignmentService(Map<ProjectRef, String> versions, DependencyPrecedence precedence,
+            AlignmentService delegate) {
+        this.versions = versions;
+        this.precedence = precedence;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response align(Request request) throws ManipulationException {
+        final Map<ProjectVersionRef, String> bomMap = new HashMap<>();
+        final List<ProjectVersionRef> unmanaged = new ArrayList<>();
+
+        for (ProjectVersionRef gav : request.getDependencies()) {
+            final String version = versions.get(gav.asProjectRef());
+
+            if (version == null) {
+                unmanaged.add(gav);
+            } else if (!version.equals(gav.getVersionString())) {
+                bomMap.put(gav, version);
+            }
+        }
+        logger.info("BOMs manage {} of {} GAVs", request.getDependencies().size() - unmanaged.size(),
+                request.getDependencies().size());
+
+        if (delegate == null) {
+            return new Response(bomMap);
+        }
+
+        final Response delegateResponse;
+        final Map<ProjectVersionRef, String> vMap;
+        if (precedence == BOMREST) {
+            delegateResponse = delegate
+                    .align(new Request(request.getProject(), unmanaged, request.getDependencyIndex()));
+            vMap = new HashMap<>(delegateResponse.getTranslationMap());
+            vMap.putAll(bomMap);
+        } else {
+            delegateResponse = delegate.align(request);
+            vMap = new HashMap<>(delegateResponse.getTranslationMap());
+            bomMap.forEach(vMap::putIfAbsent);
+        }
+
+        final Response response = new Response(vMap);
+        response.setOverrideMap(delegateResponse.getOverrideMap());
+        response.setNewProjectVersion(delegateResponse.getNewProjectVersion());
+        return response;
+    }
+}
@@ -0,0 +1,104 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
+import org.gradle.api.Project;
+import org.jboss.gm.analyzer.alignment.io.BomIO;
+import org.jboss.gm.common.Configuration;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOM;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOMREST;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.RESTBOM;
+
+/**
+ * Provides the {@link BomAlignmentService} if the dependency source is BOM, BOMREST or RESTBOM and
+ * {@link Configuration#dependencyManagement()} lists the BOMs. For BOMREST and RESTBOM the BOM versions are combined
+ * with the service of the provider that would otherwise be used, so this has a lower order than the other built in
+ * providers.
+ */
+public final class BomAlignmentServiceProvider implements AlignmentServiceProvider {
+
+    private static final List<DependencyPrecedence> SOURCES = Arrays.asList(BOM, BOMREST, RESTBOM);
+
+    @Override
+    public boolean supports(Configuration configuration) {
+        return SOURCES.contains(configuration.dependencyConfiguration())
+                && !getBoms(configuration).isEmpty();
+    }
+
+    @Override
+    public AlignmentService create(Configuration configuration, Set<Project> projects) {
+        final DependencyPrecedence precedence = configuration.dependencyConfiguration();
+        AlignmentService delegate = null;
+
+        if (precedence != BOM) {
+            delegate = getDelegateProvider(configuration).create(configuration, projects);
+        }
+        return new BomAlignmentService(BomIO.read(getBoms(configuration), getRepositories(configuration)),
+                precedence, delegate);
+    }
+
+    /**
+     * Only for RESTBOM is every GAV sent to the other service ; for BOMREST it only receives those not managed by the
+     * BOMs, so any lookups sent in the background would be wasted.
+     */
+    @Override
+    public boolean supportsPipeline(Configuration configuration) {
+        return configuration.dependencyConfiguration() == RESTBOM
+                && getDelegateProvider(configuration).supportsPipeline(configuration);
+    }
+
+    @Override
+    public int order() {
+        return -10;
+    }
+
+    private static AlignmentServiceProvider getDelegateProvider(Configuration configuration) {
+        return AlignmentServiceFactory.getProvider(configuration,
+                StreamSupport.stream(AlignmentServiceFactory.load(AlignmentServiceProvider.class).spliterator(), false)
+                        .filter(p -> !(p instanceof BomAlignmentServiceProvider))
+                        .collect(Collectors.toList()));
+    }
+
+    private static List<ProjectVersionRef> getBoms(Configuration configuration) {
+        return configuration.dependencyManagement() == null ? Collections.emptyList()
+                : Arrays.stream(configuration.dependencyManagement())
+                        .filter(b -> !isBlank(b))
+                        .map(b -> SimpleProjectVersionRef.parse(b.trim()))
+                        .collect(Collectors.toList());
+    }
+
+    private static List<File> getRepositories(Configuration configuration) {
+        final List<File> result = new ArrayList<>();
+
+        if (configuration.bomRepositories() != null) {
+            for (String repository : configuration.bomRepositories()) {
+                if (!isBlank(repository)) {
+                    result.add(repository.trim().startsWith("file:") ? new File(URI.create(repository.trim()))
+                            : new File(repository.trim()));
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            final String localRepository = System.getProperty("maven.repo.local");
+
+            result.add(isEmpty(localRepository)
+                    ? new File(System.getProperty("user.home"), ".m2" + File.separator + "repository")
+                    : new File(localRepository));
+        }
+        return result;
+    }
+}
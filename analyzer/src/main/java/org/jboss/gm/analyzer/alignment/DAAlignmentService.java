@@ -1,8 +1,15 @@
 package org.jboss.gm.analyzer.alignment;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
@@ -10,9 +17,13 @@ import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.io.rest.RestException;
 import org.commonjava.maven.ext.io.rest.Translator;
 import org.gradle.api.logging.LogLevel;
+import org.jboss.gm.analyzer.alignment.io.PersistentTranslationCache;
+import org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController;
+import org.jboss.gm.analyzer.alignment.util.TranslationMemoryCache;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.logging.FilteringCustomLogger;
 import org.jboss.gm.common.logging.GMLogger;
+import org.jboss.gm.common.utils.ExecutorUtils;
 import org.jboss.gm.common.utils.RESTUtils;
 import org.slf4j.Logger;
 
@@ -33,7 +44,31 @@ public class DAAlignmentService implements AlignmentService {
 
     private final DependencyState.DependencyPrecedence dependencySource;
 
+    private final PersistentTranslationCache cache;
+
+    private final TranslationMemoryCache memoryCache;
+
+    private final int restMaxSize;
+
+    private final int concurrency;
+
+    private final AdaptiveRequestController controller;
+
+    private final DALookupPipeline pipeline;
+
     public DAAlignmentService(Configuration configuration) {
+        this(configuration, null, null);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param configuration the current configuration
+     * @param cacheDirectory the directory of the on disk cache of REST results and of the learned REST settings, or
+     *            null to not use one. The cache is also disabled unless {@link Configuration#restCacheTtl()} is set.
+     * @param pipeline the pipeline holding any lookups already sent while scanning, or null if there is none
+     */
+    public DAAlignmentService(Configuration configuration, File cacheDirectory, DALookupPipeline pipeline) {
         dependencySource = configuration.dependencyConfiguration();
 
         final String endpointUrl = configuration.daEndpoint();
@@ -45,7 +80,15 @@ public class DAAlignmentService implements AlignmentService {
                     Configuration.DA);
         }
 
-        restEndpoint = RESTUtils.getTranslator(configuration);
+        controller = AdaptiveRequestController.getInstance(cacheDirectory, configuration);
+        restEndpoint = RESTUtils.getTranslator(configuration,
+                controller == null ? configuration.restMaxSize() : AdaptiveRequestController.MAX_CHUNK_SIZE);
+        cache = cacheDirectory == null || configuration.restCacheTtl() <= 0 ? null
+                : new PersistentTranslationCache(cacheDirectory, configuration);
+        memoryCache = TranslationMemoryCache.getInstance(configuration);
+        restMaxSize = configuration.restMaxSize();
+        concurrency = configuration.restConcurrency();
+        this.pipeline = pipeline;
     }
 
     @Override
@@ -54,39 +97,71 @@ public class DAAlignmentService implements AlignmentService {
             logger.warn("No dependencySource configured ; unable to call endpoint");
             return new Response(Collections.emptyMap());
         }
-        final LogLevel originalLevel = FilteringCustomLogger.getContext().getLevel();
         final List<ProjectVersionRef> vParams = request.getDependencies();
+        final List<ProjectVersionRef> pParams = request.getProject();
 
         logger.debug("Passing {} GAVs into the REST client api {}", vParams.size(), vParams);
 
-        final Map<ProjectVersionRef, String> vMap;
+        final Map<ProjectVersionRef, String> vMap = new HashMap<>();
+        final List<ProjectVersionRef> memoryMisses = memoryCache == null ? vParams : memoryCache.lookup(vParams, vMap);
+        final List<ProjectVersionRef> misses = cache == null ? memoryMisses : cache.lookup(memoryMisses, vMap);
+
+        if (memoryCache != null || cache != null) {
+            logger.info("REST cache hits: {} in memory, {} on disk, misses: {}", vParams.size() - memoryMisses.size(),
+                    memoryMisses.size() - misses.size(), misses.size());
+        }
+
+        final Map<ProjectVersionRef, String> pMap = new HashMap<>();
+
+        // The project version lookup and each chunk of the dependency lookup are independent requests. Project
+        // versions are never cached as the suffix they return changes whenever a build of the project is made.
+        final List<Lookup> lookups = new ArrayList<>();
+        if (!pParams.isEmpty()) {
+            logger.debug("Passing {} project GAVs into the REST client api {}", pParams.size(), pParams);
+            lookups.add(() -> restEndpoint.lookupProjectVersions(pParams));
+        }
+        // Any dependencies sent while scanning only need their requests to complete.
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final List<ProjectVersionRef> remaining = pipeline == null ? misses : pipeline.collect(misses, result);
+
+        if ((memoryCache == null && cache == null && pipeline == null) || !remaining.isEmpty()) {
+            for (List<ProjectVersionRef> chunk : partition(remaining)) {
+                lookups.add(() -> controller == null ? restEndpoint.lookupVersions(chunk)
+                        : controller.lookupVersions(restEndpoint, chunk));
+            }
+        }
+
+        final List<Map<ProjectVersionRef, String>> results;
+        final LogLevel originalLevel = FilteringCustomLogger.getContext().getLevel();
         try {
             if (originalLevel == LogLevel.LIFECYCLE) {
                 FilteringCustomLogger.getContext().setLevel(LogLevel.INFO);
             }
-            vMap = restEndpoint.lookupVersions(vParams);
+            results = invokeAll(lookups);
         } finally {
             FilteringCustomLogger.getContext().setLevel(originalLevel);
+            if (controller != null) {
+                controller.save();
+            }
+        }
+
+        if (!pParams.isEmpty()) {
+            pMap.putAll(results.remove(0));
+        }
+        results.forEach(result::putAll);
+        vMap.putAll(result);
+        // Stored even if every GAV was found so that the use of those entries is recorded.
+        if (cache != null) {
+            cache.store(misses, result);
+        }
+        if (memoryCache != null) {
+            memoryCache.store(memoryMisses, vMap);
         }
         logger.info("REST Client returned: {}", vMap);
 
         final Response response = new Response(vMap);
 
-        final List<ProjectVersionRef> pParams = request.getProject();
-
         if (!pParams.isEmpty()) {
-            logger.debug("Passing {} project GAVs into the REST client api {}", pParams.size(), pParams);
-
-            final Map<ProjectVersionRef, String> pMap;
-            try {
-                if (originalLevel == LogLevel.LIFECYCLE) {
-                    FilteringCustomLogger.getContext().setLevel(LogLevel.INFO);
-                }
-                pMap = restEndpoint.lookupProjectVersions(pParams);
-            } finally {
-                FilteringCustomLogger.getContext().setLevel(originalLevel);
-            }
-
             logger.info("REST Client returned for project versions: {}", pMap);
 
             final ProjectVersionRef projectVersion = pParams.get(0);
@@ -98,6 +173,89 @@ public class DAAlignmentService implements AlignmentService {
             response.setNewProjectVersion(newProjectVersion);
         }
 
+        if (memoryCache != null) {
+            logger.info("In memory REST cache statistics for this daemon: {}", memoryCache.getStatistics());
+        }
         return response;
     }
+
+    /**
+     * Splits the distinct GAVs into the chunks the translator would send as separate requests, so that the chunks may
+     * be sent concurrently instead.
+     *
+     * @param gavs the GAVs to look up, which may contain duplicates
+     * @return the chunks ; there is always at least one, even if empty
+     */
+    private List<List<ProjectVersionRef>> partition(List<ProjectVersionRef> gavs) {
+        // As with the translator, duplicates are removed before partitioning.
+        final List<ProjectVersionRef> distinct = gavs.stream().distinct().collect(Collectors.toList());
+        final int size;
+        if (restMaxSize == 0 || concurrency <= 1) {
+            size = Math.max(1, distinct.size());
+        } else if (restMaxSize > 0) {
+            size = restMaxSize;
+        } else if (controller != null) {
+            size = controller.getChunkSize();
+        } else {
+            // Matches the automatic partitioning of the DefaultTranslator.
+            size = distinct.size() < 600 ? 128 : distinct.size() < 1200 ? 64 : 32;
+        }
+        final List<List<ProjectVersionRef>> result = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += size) {
+            result.add(distinct.subList(i, Math.min(distinct.size(), i + size)));
+        }
+        if (result.isEmpty()) {
+            result.add(distinct);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the lookups, concurrently if there is more than one and more than one concurrent request is allowed.
+     *
+     * @param lookups the lookups to run
+     * @return the results of the lookups, in the same order as the lookups
+     * @throws RestException if any of the lookups fail
+     */
+    private List<Map<ProjectVersionRef, String>> invokeAll(List<Lookup> lookups) throws RestException {
+        final int threads = Math.min(controller == null ? concurrency : controller.getConcurrency(), lookups.size());
+        final List<Map<ProjectVersionRef, String>> result = new ArrayList<>(lookups.size());
+
+        if (threads <= 1) {
+            for (Lookup lookup : lookups) {
+                result.add(lookup.call());
+            }
+            return result;
+        }
+
+        logger.info("Sending {} REST requests using up to {} concurrent requests", lookups.size(), threads);
+        final ExecutorService executor = ExecutorUtils.newBoundedExecutor(threads);
+        try {
+            final List<Future<Map<ProjectVersionRef, String>>> futures = new ArrayList<>();
+            for (Lookup lookup : lookups) {
+                futures.add(executor.submit(lookup::call));
+            }
+            for (Future<Map<ProjectVersionRef, String>> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted while waiting for the REST endpoint");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RestException) {
+                throw (RestException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationUncheckedException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Map<ProjectVersionRef, String> call() throws RestException;
+    }
 }
@@ -0,0 +1,40 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.jboss.gm.common.Configuration;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.NONE;
+
+/**
+ * Provides the {@link DAAlignmentService}, along with the on disk REST cache and any lookups already sent in the
+ * background by the {@link DALookupPipeline}. This is the fallback used when no other {@link AlignmentServiceProvider}
+ * supports the configuration.
+ */
+public final class DAAlignmentServiceProvider implements AlignmentServiceProvider {
+
+    @Override
+    public boolean supports(Configuration configuration) {
+        return true;
+    }
+
+    @Override
+    public AlignmentService create(Configuration configuration, Set<Project> projects) {
+        return new DAAlignmentService(configuration, AlignmentServiceFactory.getCacheDirectory(configuration, projects),
+                projects.stream().findFirst().map(p -> DALookupPipeline.getPipeline(p, configuration)).orElse(null));
+    }
+
+    @Override
+    public boolean supportsPipeline(Configuration configuration) {
+        // A limit of 0 requires a single request.
+        return configuration.restMaxSize() != 0 && configuration.dependencyConfiguration() != NONE
+                && !isEmpty(configuration.daEndpoint());
+    }
+
+    @Override
+    public int order() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,237 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.jboss.gm.analyzer.alignment.AlignmentService.Request;
+import org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer;
+import org.jboss.gm.analyzer.alignment.io.PersistentTranslationCache;
+import org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController;
+import org.jboss.gm.analyzer.alignment.util.DependencyIndex;
+import org.jboss.gm.analyzer.alignment.util.TranslationMemoryCache;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.logging.GMLogger;
+import org.jboss.gm.common.utils.ExecutorUtils;
+import org.jboss.gm.common.utils.RESTUtils;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+
+/**
+ * Sends the dependencies found by each scan to the REST endpoint in the background, while the remaining projects are
+ * still being scanned, so that {@link DAAlignmentService} only has to wait for the requests still in flight.
+ * <p>
+ * The GAVs pass through the same request customizers as the alignment request, then are batched into requests of
+ * the same size as the chunks sent by {@link DAAlignmentService}. GAVs already sent, or held within the REST caches,
+ * are not sent again. Any GAVs left over in an incomplete batch, or whose
+ * request failed, are looked up as usual by {@link DAAlignmentService}.
+ */
+public final class DALookupPipeline {
+
+    private static final String NAME = "gmeLookupPipeline";
+
+    /**
+     * The chunk size the translator uses for its automatic partitioning of small requests.
+     */
+    private static final int AUTO_BATCH_SIZE = 128;
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final Translator restEndpoint;
+
+    private final TranslationMemoryCache memoryCache;
+
+    private final PersistentTranslationCache cache;
+
+    private final AdaptiveRequestController controller;
+
+    private final List<RequestCustomizer> requestCustomizers;
+
+    private final int batchSize;
+
+    private final int concurrency;
+
+    private final Set<ProjectVersionRef> seen = new HashSet<>();
+
+    private final List<ProjectVersionRef> pending = new ArrayList<>();
+
+    private final Map<ProjectVersionRef, Future<Map<ProjectVersionRef, String>>> inFlight = new HashMap<>();
+
+    private ExecutorService executor;
+
+    // Package private for testing
+    DALookupPipeline(Translator restEndpoint, TranslationMemoryCache memoryCache, PersistentTranslationCache cache,
+            AdaptiveRequestController controller, List<RequestCustomizer> requestCustomizers, int batchSize,
+            int concurrency) {
+        this.restEndpoint = restEndpoint;
+        this.memoryCache = memoryCache;
+        this.cache = cache;
+        this.controller = controller;
+        this.requestCustomizers = requestCustomizers;
+        this.batchSize = controller == null ? batchSize : controller.getChunkSize();
+        this.concurrency = controller == null ? concurrency : controller.getConcurrency();
+    }
+
+    /**
+     * Retrieves the pipeline of the current build, which is stored in the root project extensions, creating it if
+     * required.
+     *
+     * @param project any project of the build
+     * @param configuration the current configuration
+     * @return the pipeline, or null if it is disabled or the selected {@link AlignmentServiceProvider} would not
+     *         collect its lookups (see {@link AlignmentServiceProvider#supportsPipeline(Configuration)})
+     */
+    public static synchronized DALookupPipeline getPipeline(Project project, Configuration configuration) {
+        final ExtraPropertiesExtension extraProperties = project.getRootProject().getExtensions().getExtraProperties();
+
+        if (!extraProperties.has(NAME)) {
+            DALookupPipeline pipeline = null;
+
+            if (configuration.restPipeline()
+                    && AlignmentServiceFactory.getProvider(configuration).supportsPipeline(configuration)) {
+                final Set<Project> projects = new HashSet<>(project.getRootProject().getAllprojects());
+                final File cacheDirectory = AlignmentServiceFactory.getCacheDirectory(configuration, projects);
+                final AdaptiveRequestController controller = AdaptiveRequestController.getInstance(cacheDirectory,
+                        configuration);
+
+                pipeline = new DALookupPipeline(RESTUtils.getTranslator(configuration,
+                        controller == null ? configuration.restMaxSize() : AdaptiveRequestController.MAX_CHUNK_SIZE),
+                        TranslationMemoryCache.getInstance(configuration),
+                        cacheDirectory == null || configuration.restCacheTtl() <= 0 ? null
+                                : new PersistentTranslationCache(cacheDirectory, configuration),
+                        controller,
+                        AlignmentServiceFactory.getRequestCustomizers(configuration, projects),
+                        configuration.restMaxSize() > 0 ? configuration.restMaxSize() : AUTO_BATCH_SIZE,
+                        Math.max(1, configuration.restConcurrency()));
+            }
+            // A disabled pipeline is stored too, so that the provider is only selected once.
+            extraProperties.set(NAME, pipeline);
+        }
+        return (DALookupPipeline) extraProperties.get(NAME);
+    }
+
+    /**
+     * Queues the GAVs found by a scan, sending a request for each complete batch. The GAVs are passed through the
+     * request customizers first, so that GAVs they remove (e.g. excluded dependencies) are never sent.
+     *
+     * @param project the scanned project
+     * @param dependencies the dependencies found by the scan
+     */
+    public void submit(Project project, Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies) {
+        final DependencyIndex<Project> dependencyIndex = new DependencyIndex<>(
+                Collections.singletonMap(project, dependencies), false);
+
+        submit(new Request(Collections.emptyList(), dependencyIndex.getDependencies(), dependencyIndex));
+    }
+
+    // Package private for testing
+    void submit(Request request) {
+        for (RequestCustomizer requestCustomizer : requestCustomizers) {
+            request = requestCustomizer.customize(request);
+        }
+        synchronized (this) {
+            for (ProjectVersionRef gav : request.getDependencies()) {
+                if (seen.add(gav) && (memoryCache == null || !memoryCache.contains(gav))) {
+                    pending.add(gav);
+                }
+            }
+            while (pending.size() >= batchSize) {
+                final List<ProjectVersionRef> batch = pending.subList(0, batchSize);
+
+                send(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<ProjectVersionRef> batch) {
+        final List<ProjectVersionRef> misses = cache == null ? batch : cache.lookup(batch, new HashMap<>());
+
+        if (misses.isEmpty()) {
+            return;
+        }
+        if (executor == null) {
+            executor = ExecutorUtils.newBoundedExecutor(concurrency);
+        }
+        logger.info("Sending {} GAVs to the REST endpoint in the background", misses.size());
+
+        final Future<Map<ProjectVersionRef, String>> request = executor.submit(() -> controller == null
+                ? restEndpoint.lookupVersions(misses) : controller.lookupVersions(restEndpoint, misses));
+        misses.forEach(gav -> inFlight.put(gav, request));
+    }
+
+    /**
+     * Takes the results of any of the GAVs that were sent in the background, waiting for the requests still in flight,
+     * and stops the pipeline.
+     *
+     * @param gavs the GAVs to look up
+     * @param found populated with the aligned version of each GAV that was sent and has one
+     * @return the GAVs that were not sent, or whose request failed, which must still be looked up
+     */
+    public List<ProjectVersionRef> collect(List<ProjectVersionRef> gavs, Map<ProjectVersionRef, String> found) {
+        final Map<ProjectVersionRef, Future<Map<ProjectVersionRef, String>>> requests;
+        synchronized (this) {
+            requests = new HashMap<>(inFlight);
+            inFlight.clear();
+            pending.clear();
+        }
+
+        final Map<Future<Map<ProjectVersionRef, String>>, Map<ProjectVersionRef, String>> responses = new HashMap<>();
+        final List<ProjectVersionRef> result = new ArrayList<>();
+        try {
+            for (ProjectVersionRef gav : gavs) {
+                final Future<Map<ProjectVersionRef, String>> request = requests.get(gav);
+
+                if (request != null && !responses.containsKey(request)) {
+                    // A failed request is recorded as null so that it is only reported once.
+                    responses.put(request, await(request));
+                }
+                final Map<ProjectVersionRef, String> response = request == null ? null : responses.get(request);
+
+                if (response == null) {
+                    result.add(gav);
+                } else if (response.get(gav) != null) {
+                    found.put(gav, response.get(gav));
+                }
+            }
+        } finally {
+            shutdown();
+        }
+        logger.info("{} GAVs were looked up in the background while scanning ; {} remain", gavs.size() - result.size(),
+                result.size());
+        return result;
+    }
+
+    private Map<ProjectVersionRef, String> await(Future<Map<ProjectVersionRef, String>> request) {
+        try {
+            return request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted while waiting for the REST endpoint");
+        } catch (ExecutionException e) {
+            logger.warn("Background REST request failed ; retrying ({})", e.getCause().getMessage());
+            logger.debug("Background REST request failure", e.getCause());
+            return null;
+        }
+    }
+
+    private synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
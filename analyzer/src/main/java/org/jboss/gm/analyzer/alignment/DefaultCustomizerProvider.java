@@ -0,0 +1,72 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer;
+import org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer;
+import org.jboss.gm.common.Configuration;
+
+/**
+ * Provides the built in customizers, which apply the <code>dependencyExclusion</code> and
+ * <code>dependencyOverride</code> properties and calculate the new project version.
+ */
+public final class DefaultCustomizerProvider implements AlignmentCustomizerProvider {
+
+    private Configuration exclusionConfiguration;
+
+    private Set<Project> exclusionProjects;
+
+    private DependencyExclusionCustomizer exclusionCustomizer;
+
+    /**
+     * Creates the request customizers.
+     * Currently only a single one exists so in theory we could eliminate the List here. Keeping it for consistency
+     * with the response side and potential future expansion.
+     *
+     * @param configuration the current Configuration.
+     * @param projects the current Projects
+     * @return the list of Request Customizers.
+     */
+    @Override
+    public List<RequestCustomizer> getRequestCustomizers(Configuration configuration, Set<Project> projects) {
+        return Collections.singletonList(getExclusionCustomizer(configuration, projects));
+    }
+
+    /**
+     * Creates the response customizers. The exclusions are applied to the response as well, by the same instance as
+     * the request, so that dependencies which are only excluded within some modules are still aligned within the
+     * others.
+     *
+     * @param configuration the current Configuration.
+     * @param projects the current Projects
+     * @return the list of Response Customizers.
+     */
+    @Override
+    public List<ResponseCustomizer> getResponseCustomizers(Configuration configuration, Set<Project> projects) {
+        return Arrays.asList(getExclusionCustomizer(configuration, projects),
+                DependencyOverrideCustomizer.fromConfigurationForModule(configuration, projects),
+                new UpdateProjectVersionCustomizer(projects, configuration));
+    }
+
+    /**
+     * Creates the exclusion customizer once for both the request and the response, so that the rules are only read
+     * and compiled once.
+     *
+     * @param configuration the current Configuration.
+     * @param projects the current Projects
+     * @return the exclusion customizer, or null if there are no exclusions
+     */
+    private synchronized DependencyExclusionCustomizer getExclusionCustomizer(Configuration configuration,
+            Set<Project> projects) {
+        if (configuration != exclusionConfiguration || !projects.equals(exclusionProjects)) {
+            exclusionCustomizer = DependencyExclusionCustomizer.fromConfigurationForModule(configuration, projects);
+            exclusionConfiguration = configuration;
+            exclusionProjects = projects;
+        }
+        return exclusionCustomizer;
+    }
+}
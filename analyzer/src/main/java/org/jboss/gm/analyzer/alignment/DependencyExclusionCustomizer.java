@@ -1,100 +1,125 @@
 package org.jboss.gm.analyzer.alignment;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.gradle.api.Project;
 import org.gradle.api.logging.Logger;
+import org.jboss.gm.analyzer.alignment.io.DependencyRulesIO;
+import org.jboss.gm.analyzer.alignment.util.DependencyExclusionIndex;
+import org.jboss.gm.analyzer.alignment.util.DependencyIndex;
 import org.jboss.gm.analyzer.alignment.util.DependencyPropertyParser;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.logging.GMLogger;
-import org.jboss.gm.common.utils.ProjectUtils;
-
-import static org.apache.commons.lang.StringUtils.isNotEmpty;
 
 /**
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer} that removes dependencies from a
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService.Request}
  *
- * The idea is that this class will be created with a predicate (which can of course be the product of multiple predicates)
- * that will match dependencies that are supposed to be excluded.
- * The hard part is creating the proper predicate for each project based on configuration similar to what PME offers
+ * The idea is that this class will be created with a predicate (which can of course be the product of multiple
+ * predicates) that will match dependencies that are supposed to be excluded.
  *
- * TODO: figure out if we need to worry about order
+ * When created from the configuration the <code>dependencyExclusion</code> properties are instead compiled into a
+ * {@link DependencyExclusionIndex}. A dependency is then only removed from the request if every module using it
+ * excludes it, as given by the {@link DependencyIndex} of the request, and the index is handed to the
+ * {@link org.jboss.gm.analyzer.alignment.AlignmentService.Response} so that the remaining dependencies are only
+ * excluded within the modules that exclude them.
  */
-public class DependencyExclusionCustomizer implements AlignmentService.RequestCustomizer {
+public class DependencyExclusionCustomizer
+        implements AlignmentService.RequestCustomizer, AlignmentService.ResponseCustomizer {
 
     private static final Logger logger = GMLogger.getLogger(DependencyExclusionCustomizer.class);
 
     private final Predicate<ProjectRef> predicate;
 
+    private final DependencyExclusionIndex exclusions;
+
+    private final Set<ProjectRef> allModules;
+
     public DependencyExclusionCustomizer(Predicate<ProjectRef> predicate) {
         this.predicate = predicate;
+        this.exclusions = null;
+        this.allModules = null;
+    }
+
+    DependencyExclusionCustomizer(DependencyExclusionIndex exclusions, Set<Project> projects) {
+        this.predicate = null;
+        this.exclusions = exclusions;
+        this.allModules = projects.stream().map(DependencyExclusionIndex::getModule).collect(Collectors.toSet());
     }
 
     @Override
     public AlignmentService.Request customize(AlignmentService.Request request) {
-        final List<ProjectVersionRef> dependenciesWithoutExclusions = request.getDependencies().stream()
-                .filter(predicate).collect(Collectors.toList());
+        final List<ProjectVersionRef> dependenciesWithoutExclusions;
 
-        return new AlignmentService.Request(request.getProject(), dependenciesWithoutExclusions);
+        if (exclusions == null) {
+            dependenciesWithoutExclusions = request.getDependencies().stream().filter(predicate)
+                    .collect(Collectors.toList());
+        } else {
+            dependenciesWithoutExclusions = request.getDependencies().stream()
+                    .filter(d -> getModules(request.getDependencyIndex(), d).stream()
+                            .anyMatch(m -> !exclusions.isExcluded(m, d)))
+                    .collect(Collectors.toList());
+        }
+        return new AlignmentService.Request(request.getProject(), dependenciesWithoutExclusions,
+                request.getDependencyIndex());
     }
 
-    public static AlignmentService.RequestCustomizer fromConfigurationForModule(Configuration configuration,
-            Set<Project> projects) {
-        final List<Predicate<ProjectRef>> predicates = new ArrayList<>();
-        final Map<String, String> prefixed = PropertiesUtils.getPropertiesByPrefix(configuration.getProperties(),
-                "dependencyExclusion.");
-        DependencyExclusionCustomizer result = null;
-
-        if (!prefixed.isEmpty()) {
-            //the idea is to start with a predicate that passes all artifacts and add one predicate per configured exclusion
-            for (String key : prefixed.keySet()) {
-                final DependencyPropertyParser.Result keyParseResult = DependencyPropertyParser.parse(key);
-                for (Project project : projects) {
-                    String group = ProjectUtils.getRealGroupId(project);
-                    if (isNotEmpty(project.getVersion().toString()) &&
-                            isNotEmpty(group) &&
-                            isNotEmpty(project.getName())) {
-                        final ProjectVersionRef projectRef = new SimpleProjectVersionRef(group,
-                                project.getName(),
-                                project.getVersion().toString());
-                        if (keyParseResult.matchesModule(projectRef)) {
-                            logger.debug("Excluding dependency {} from alignment of module {}", keyParseResult.getDependency(),
-                                    projectRef);
-                            // if the key matches this module, add a predicate that rejects the artifact that was configured in the property
-                            predicates.add(new DependencyExclusionPredicate(keyParseResult.getDependency()));
-                        }
-                    }
-                }
-            }
+    @Override
+    public AlignmentService.Response customize(AlignmentService.Response response) {
+        if (exclusions != null) {
+            response.setExclusions(exclusions);
         }
+        return response;
+    }
 
-        if (!predicates.isEmpty()) {
-            result = new DependencyExclusionCustomizer(predicates.stream().reduce(x -> true, Predicate::and));
-        }
-        // If null is returned this is filtered out in AlignmentServiceFactory::getRequestCustomizer with the filter
-        return result;
+    @Override
+    public int order() {
+        return 0;
     }
 
-    private static class DependencyExclusionPredicate implements Predicate<ProjectRef> {
-        private final ProjectRef dependency;
+    /**
+     * @param dependencyIndex the modules using each dependency, or null if unknown
+     * @param dependency the dependency
+     * @return the modules using the dependency, or every module if unknown
+     */
+    private Set<ProjectRef> getModules(DependencyIndex<Project> dependencyIndex, ProjectVersionRef dependency) {
+        final Set<ProjectRef> result = new HashSet<>();
 
-        DependencyExclusionPredicate(ProjectRef dependency) {
-            this.dependency = dependency;
+        if (dependencyIndex != null) {
+            dependencyIndex.forEachUsage(dependency,
+                    (project, original) -> result.add(DependencyExclusionIndex.getModule(project)));
         }
+        return result.isEmpty() ? allModules : result;
+    }
 
-        @Override
-        public boolean test(ProjectRef gav) {
-            return !dependency.matches(gav);
+    public static DependencyExclusionCustomizer fromConfigurationForModule(Configuration configuration,
+            Set<Project> projects) {
+        final Map<String, String> prefixed = DependencyRulesIO.getPropertiesByPrefix(configuration, projects,
+                "dependencyExclusion.");
+        final Set<ProjectRef> modules = projects.stream().map(DependencyExclusionIndex::getModule)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        final List<DependencyPropertyParser.Result> rules = new ArrayList<>();
+
+        for (String key : prefixed.keySet()) {
+            final DependencyPropertyParser.Result keyParseResult = DependencyPropertyParser.parse(key);
+
+            if (keyParseResult.getModule() == null || modules.stream().anyMatch(keyParseResult::matchesModule)) {
+                logger.debug("Excluding dependency {} from alignment of module {}", keyParseResult.getDependency(),
+                        keyParseResult.getModule() == null ? "*" : keyParseResult.getModule());
+                rules.add(keyParseResult);
+            }
         }
+        // If null is returned this is filtered out in AlignmentServiceFactory::getAlignmentService with the filter
+        return rules.isEmpty() ? null
+                : new DependencyExclusionCustomizer(new DependencyExclusionIndex(rules), projects);
     }
 }
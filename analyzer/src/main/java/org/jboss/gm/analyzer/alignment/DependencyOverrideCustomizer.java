@@ -2,22 +2,20 @@ package org.jboss.gm.analyzer.alignment;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
-import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.gradle.api.Project;
 import org.gradle.api.logging.Logger;
 import org.jboss.gm.analyzer.alignment.AlignmentService.Response;
 import org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer;
+import org.jboss.gm.analyzer.alignment.io.DependencyRulesIO;
+import org.jboss.gm.analyzer.alignment.util.DependencyExclusionIndex;
 import org.jboss.gm.analyzer.alignment.util.DependencyPropertyParser;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.logging.GMLogger;
-import org.jboss.gm.common.utils.ProjectUtils;
-
-import static org.apache.commons.lang.StringUtils.isNotEmpty;
 
 /**
  * {@link ResponseCustomizer} that changes the versions of
@@ -47,7 +45,7 @@ public class DependencyOverrideCustomizer implements ResponseCustomizer {
     }
 
     /**
-     * This is created by the {@link AlignmentServiceFactory} when creating the request/response customizers.
+     * This is created by the {@link DefaultCustomizerProvider} when creating the request/response customizers.
      *
      * @param configuration the Configuration object
      * @param projects the collection of projects
@@ -58,30 +56,19 @@ public class DependencyOverrideCustomizer implements ResponseCustomizer {
 
         DependencyOverrideCustomizer result = null;
         final Map<ProjectRef, String> overrideMap = new LinkedHashMap<>();
-        final Map<String, String> prefixed = PropertiesUtils.getPropertiesByPrefix(configuration.getProperties(),
+        final Map<String, String> prefixed = DependencyRulesIO.getPropertiesByPrefix(configuration, projects,
                 "dependencyOverride.");
+        final Set<ProjectRef> modules = projects.stream().map(DependencyExclusionIndex::getModule)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
 
-        if (!prefixed.isEmpty()) {
-            for (Map.Entry<String, String> entry : prefixed.entrySet()) {
-                final String key = entry.getKey();
-                final String value = entry.getValue();
-                final DependencyPropertyParser.Result keyParseResult = DependencyPropertyParser.parse(key);
+        for (Map.Entry<String, String> entry : prefixed.entrySet()) {
+            final DependencyPropertyParser.Result keyParseResult = DependencyPropertyParser.parse(entry.getKey());
 
-                for (Project project : projects) {
-                    String group = ProjectUtils.getRealGroupId(project);
-                    if (isNotEmpty(project.getVersion().toString()) &&
-                            isNotEmpty(group) &&
-                            isNotEmpty(project.getName())) {
-                        final ProjectVersionRef projectRef = new SimpleProjectVersionRef(group,
-                                project.getName(), project.getVersion().toString());
-                        if (keyParseResult.matchesModule(projectRef)) {
-                            final String overrideVersion = value;
-                            logger.debug("Overriding dependency {} in module {} with version {}",
-                                    keyParseResult.getDependency(), projectRef, overrideVersion);
-                            overrideMap.put(keyParseResult.getDependency(), overrideVersion);
-                        }
-                    }
-                }
+            // A property for all modules needs no comparison with each module
+            if (keyParseResult.getModule() == null || modules.stream().anyMatch(keyParseResult::matchesModule)) {
+                logger.debug("Overriding dependency {} in module {} with version {}", keyParseResult.getDependency(),
+                        keyParseResult.getModule() == null ? "*" : keyParseResult.getModule(), entry.getValue());
+                overrideMap.put(keyParseResult.getDependency(), entry.getValue());
             }
         }
 
@@ -89,7 +76,7 @@ public class DependencyOverrideCustomizer implements ResponseCustomizer {
             logger.debug("Returning overrideMap of {}", overrideMap);
             result = new DependencyOverrideCustomizer(overrideMap);
         }
-        // If null is returned this is filtered out in AlignmentServiceFactory::geResponseCustomizer with the filter
+        // If null is returned this is filtered out in AlignmentServiceFactory::getAlignmentService with the filter
         return result;
     }
 }
@@ -0,0 +1,62 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.analyzer.alignment.io.OfflineAlignmentMapping;
+import org.jboss.gm.common.logging.GMLogger;
+
+/**
+ * An implementation of {@link AlignmentService} that answers from an {@link OfflineAlignmentMapping} read from local
+ * files instead of calling the Dependency Analyzer service. This allows a build to be aligned again reproducibly
+ * without network access, and the analysis to be benchmarked without a live endpoint.
+ * <p>
+ * As with {@link DAAlignmentService}, a GAV that is not within the mapping has no aligned version.
+ */
+public class OfflineAlignmentService implements AlignmentService {
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final OfflineAlignmentMapping mapping;
+
+    public OfflineAlignmentService(OfflineAlignmentMapping mapping) {
+        this.mapping = mapping;
+    }
+
+    @Override
+    public Response align(Request request) {
+        final Map<ProjectVersionRef, String> vMap = lookup(request.getDependencies(), mapping.getVersions());
+
+        logger.info("Offline alignment found {} of {} GAVs", vMap.size(), request.getDependencies().size());
+
+        final Response response = new Response(vMap);
+        final List<ProjectVersionRef> pParams = request.getProject();
+
+        if (!pParams.isEmpty()) {
+            final Map<ProjectVersionRef, String> pMap = lookup(pParams, mapping.getProjectVersions());
+            final String newProjectVersion = pMap.get(pParams.get(0));
+
+            logger.info("Retrieving project version {} and returning {}", pParams.get(0), newProjectVersion);
+
+            response.getTranslationMap().putAll(pMap);
+            response.setNewProjectVersion(newProjectVersion);
+        }
+        return response;
+    }
+
+    private static Map<ProjectVersionRef, String> lookup(List<ProjectVersionRef> gavs,
+            Map<ProjectVersionRef, String> versions) {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final String version = versions.get(gav);
+            if (version != null) {
+                result.put(gav, version);
+            }
+        }
+        return result;
+    }
+}
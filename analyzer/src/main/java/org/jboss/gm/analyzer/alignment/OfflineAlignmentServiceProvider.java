@@ -0,0 +1,33 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.jboss.gm.analyzer.alignment.io.OfflineAlignmentMapping;
+import org.jboss.gm.common.Configuration;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.NONE;
+
+/**
+ * Provides the {@link OfflineAlignmentService} if {@link Configuration#restOfflineFile()} is configured. A relative
+ * path is resolved against the root project directory.
+ */
+public final class OfflineAlignmentServiceProvider implements AlignmentServiceProvider {
+
+    @Override
+    public boolean supports(Configuration configuration) {
+        return !isEmpty(configuration.restOfflineFile()) && configuration.dependencyConfiguration() != NONE;
+    }
+
+    @Override
+    public AlignmentService create(Configuration configuration, Set<Project> projects) {
+        File source = new File(configuration.restOfflineFile());
+
+        if (!source.isAbsolute()) {
+            source = new File(projects.iterator().next().getRootDir(), source.getPath());
+        }
+        return new OfflineAlignmentService(OfflineAlignmentMapping.read(source));
+    }
+}
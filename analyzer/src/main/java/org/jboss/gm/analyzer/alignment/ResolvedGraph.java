@@ -0,0 +1,240 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+
+/**
+ * The outcome of resolving a configuration, gathered from a single walk of its
+ * {@link org.gradle.api.artifacts.result.ResolutionResult} graph. Only the identifiers of the modules are retained
+ * rather than the graph itself.
+ * <p>
+ * Instances are immutable and may therefore be shared between configurations with the same fingerprint. Where
+ * sharing is not possible {@link #walk(ResolvedComponentResult, Visitor)} streams the graph straight to a
+ * {@link Visitor} without retaining anything beyond the set of modules already seen.
+ */
+final class ResolvedGraph {
+
+    private static final Method IS_CONSTRAINT = findIsConstraint();
+
+    /**
+     * Receives the components of the graph as it is walked.
+     */
+    interface Visitor {
+        /**
+         * Called once for each external module (group and name) within the graph.
+         *
+         * @param module the selected module
+         * @param firstLevel true if the module is a direct dependency of the configuration
+         */
+        void visitModule(ModuleVersionIdentifier module, boolean firstLevel);
+
+        /**
+         * Called once for each external module that could not be resolved.
+         *
+         * @param dependency the unresolved dependency
+         */
+        void visitUnresolved(UnresolvedDependencyResult dependency);
+
+        /**
+         * Called once for each project within the build that is part of the graph.
+         *
+         * @param path the project path
+         */
+        void visitProject(String path);
+    }
+
+    private final List<ModuleVersionIdentifier> firstLevelModules;
+
+    private final List<ModuleVersionIdentifier> transitiveModules;
+
+    private final List<UnresolvedDependencyResult> unresolvedModules;
+
+    private final List<String> projectPaths;
+
+    private ResolvedGraph(List<ModuleVersionIdentifier> firstLevelModules,
+            List<ModuleVersionIdentifier> transitiveModules, List<UnresolvedDependencyResult> unresolvedModules,
+            List<String> projectPaths) {
+        this.firstLevelModules = Collections.unmodifiableList(firstLevelModules);
+        this.transitiveModules = Collections.unmodifiableList(transitiveModules);
+        this.unresolvedModules = Collections.unmodifiableList(unresolvedModules);
+        this.projectPaths = Collections.unmodifiableList(projectPaths);
+    }
+
+    /**
+     * Walks the graph and retains the result so that it may be replayed via {@link #accept(Visitor)}.
+     *
+     * @param root the root of the resolved graph
+     * @param transitive whether to retain transitive modules or only the first level modules
+     * @return the resolved graph
+     */
+    static ResolvedGraph collect(ResolvedComponentResult root, boolean transitive) {
+        final List<ModuleVersionIdentifier> firstLevel = new ArrayList<>();
+        final List<ModuleVersionIdentifier> transitiveModules = new ArrayList<>();
+        final List<UnresolvedDependencyResult> unresolved = new ArrayList<>();
+        final List<String> projectPaths = new ArrayList<>();
+
+        walk(root, new Visitor() {
+            @Override
+            public void visitModule(ModuleVersionIdentifier module, boolean firstLevelModule) {
+                if (firstLevelModule) {
+                    firstLevel.add(module);
+                } else if (transitive) {
+                    transitiveModules.add(module);
+                }
+            }
+
+            @Override
+            public void visitUnresolved(UnresolvedDependencyResult dependency) {
+                unresolved.add(dependency);
+            }
+
+            @Override
+            public void visitProject(String path) {
+                projectPaths.add(path);
+            }
+        });
+        return new ResolvedGraph(firstLevel, transitiveModules, unresolved, projectPaths);
+    }
+
+    /**
+     * Replays the retained graph to the visitor. All first level modules are visited before any transitive ones,
+     * as in the original walk.
+     *
+     * @param visitor the visitor to notify
+     */
+    void accept(Visitor visitor) {
+        firstLevelModules.forEach(m -> visitor.visitModule(m, true));
+        transitiveModules.forEach(m -> visitor.visitModule(m, false));
+        unresolvedModules.forEach(visitor::visitUnresolved);
+        projectPaths.forEach(visitor::visitProject);
+    }
+
+    /**
+     * Walks the resolved graph breadth first, streaming it to the visitor. Each module (by group and name) is only
+     * visited and descended into once, so the memory used is bounded by the number of distinct modules rather than
+     * the number of edges. As the walk is breadth first all first level modules are visited before any transitive
+     * ones.
+     *
+     * @param root the root of the resolved graph
+     * @param visitor the visitor to notify
+     */
+    static void walk(ResolvedComponentResult root, Visitor visitor) {
+        final Set<ModuleIdentifier> visitedModules = new HashSet<>();
+        final Set<ComponentIdentifier> visitedProjects = new HashSet<>();
+        final Set<ComponentSelector> unresolved = new HashSet<>();
+        final Deque<ResolvedComponentResult> queue = new ArrayDeque<>();
+
+        visitedProjects.add(root.getId());
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            final ResolvedComponentResult component = queue.poll();
+
+            for (DependencyResult dependency : component.getDependencies()) {
+                if (isConstraint(dependency)) {
+                    continue;
+                }
+                if (dependency instanceof UnresolvedDependencyResult) {
+                    final UnresolvedDependencyResult result = (UnresolvedDependencyResult) dependency;
+                    // We don't care about modules of the project being unresolvable at this stage.
+                    if (!(result.getAttempted() instanceof ProjectComponentSelector)
+                            && unresolved.add(result.getAttempted())) {
+                        visitor.visitUnresolved(result);
+                    }
+                } else if (dependency instanceof ResolvedDependencyResult) {
+                    final ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                    final ModuleVersionIdentifier module = selected.getModuleVersion();
+
+                    if (selected.getId() instanceof ProjectComponentIdentifier) {
+                        if (visitedProjects.add(selected.getId())) {
+                            visitor.visitProject(((ProjectComponentIdentifier) selected.getId()).getProjectPath());
+                            queue.add(selected);
+                        }
+                    } else if (module != null && visitedModules.add(module.getModule())) {
+                        visitor.visitModule(module, component == root);
+                        queue.add(selected);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds a version requested anywhere within the resolved graph, whether by a direct or a transitive dependency or
+     * by a constraint, that satisfies the predicate.
+     *
+     * @param root the root of the resolved graph
+     * @param predicate the test applied to each requested version
+     * @return the first requested version that satisfies the predicate, or null if there is none
+     */
+    static String findRequestedVersion(ResolvedComponentResult root, Predicate<String> predicate) {
+        final Set<ComponentIdentifier> visited = new HashSet<>();
+        final Deque<ResolvedComponentResult> queue = new ArrayDeque<>();
+
+        visited.add(root.getId());
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            for (DependencyResult dependency : queue.poll().getDependencies()) {
+                if (dependency.getRequested() instanceof ModuleComponentSelector) {
+                    final String version = ((ModuleComponentSelector) dependency.getRequested()).getVersion();
+                    if (predicate.test(version)) {
+                        return version;
+                    }
+                }
+                if (dependency instanceof ResolvedDependencyResult) {
+                    final ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                    if (visited.add(selected.getId())) {
+                        queue.add(selected);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Dependency constraints appear as edges within the graph but, as with
+     * {@link org.gradle.api.artifacts.LenientConfiguration}, should not be considered dependencies themselves.
+     * <code>DependencyResult.isConstraint</code> is only available from Gradle 5.1 so is looked up reflectively.
+     */
+    private static Method findIsConstraint() {
+        try {
+            return DependencyResult.class.getMethod("isConstraint");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean isConstraint(DependencyResult dependency) {
+        if (IS_CONSTRAINT == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(IS_CONSTRAINT.invoke(dependency));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new ManipulationUncheckedException(e);
+        }
+    }
+}
@@ -19,16 +19,17 @@ import org.jboss.gm.common.logging.GMLogger;
  * of {@link org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer} this class was created with
  *
  * @see org.jboss.gm.analyzer.alignment.AlignmentServiceFactory
+ * @see org.jboss.gm.analyzer.alignment.AlignmentCustomizerProvider
  */
 public class WithCustomizersDelegatingAlignmentService implements AlignmentService {
 
     private final Logger logger = GMLogger.getLogger(getClass());
 
-    private final DAAlignmentService delegate;
+    private final AlignmentService delegate;
     private final List<AlignmentService.RequestCustomizer> requestCustomizers;
     private final List<AlignmentService.ResponseCustomizer> responseCustomizers;
 
-    public WithCustomizersDelegatingAlignmentService(DAAlignmentService delegate,
+    public WithCustomizersDelegatingAlignmentService(AlignmentService delegate,
             List<RequestCustomizer> requestCustomizers,
             List<ResponseCustomizer> responseCustomizers) {
         this.delegate = delegate;
@@ -50,7 +51,7 @@ public class WithCustomizersDelegatingAlignmentService implements AlignmentServi
             request = requestCustomizer.customize(request);
         }
 
-        logger.debug("Invoking DA...");
+        logger.debug("Invoking alignment service {}...", delegate.getClass().getSimpleName());
         Response response = delegate.align(request);
 
         logger.debug("Invoking response customizers...");
@@ -0,0 +1,412 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.aeonbits.owner.Config.Key;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.Project;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.utils.ManifestUtils;
+
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.APPLY_GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_PLUGINCONFIGS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GRADLE;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END_KOTLIN;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START_KOTLIN;
+
+/**
+ * Records the inputs and outputs of an alignment so that a later run, whose inputs are identical and whose outputs
+ * are untouched, may be skipped entirely.
+ * <p>
+ * The inputs are the build scripts, settings, properties and lockfiles of every project, the contents of
+ * {@code buildSrc} and the name of the root project together with the alignment configuration. As the alignment
+ * itself rewrites some of these (injecting the GME markers, appending the root project name and renaming the
+ * lockfiles) they are normalised so that exactly those changes don't count as a modification. Each input is
+ * represented by the SHA-256 of its content, so no configuration values (which may include credentials) are stored.
+ */
+public final class AnalysisStateIO {
+
+    private static final String STATE_FILE = "gme-analysis.properties";
+
+    private static final String OUTPUT_PREFIX = "output:";
+
+    private static final String LOCKFILE_EXTENSION = ".lockfile";
+
+    private static final String UNUSED_EXTENSION = ".unused";
+
+    private static final String BUILD_SRC = "buildSrc";
+
+    private static final List<String> BUILD_SRC_OUTPUTS = Arrays.asList("build", ".gradle");
+
+    private static final String ROOT_PROJECT_NAME = "rootProject.name";
+
+    private static final List<String> SETTINGS = Arrays.asList("settings.gradle", "settings.gradle.kts");
+
+    private static final List<String> PREFIXED_PROPERTIES = Arrays.asList("dependencyOverride.",
+            "dependencyExclusion.");
+
+    private static final List<String> INJECTED_FIRST_LINES = Arrays.asList(INJECT_GME_START, INJECT_GME_START_KOTLIN,
+            APPLY_GME_REPOS);
+
+    private static final List<String> INJECTED_LAST_LINES = Arrays.asList(INJECT_GME_END, INJECT_GME_END_KOTLIN);
+
+    // The number of blank lines the alignment writes after an injected first line.
+    private static final int INJECTED_BLANK_LINES = 2;
+
+    private AnalysisStateIO() {
+    }
+
+    /**
+     * Returns the file in which the state of the last alignment is stored.
+     *
+     * @param rootProject the root project
+     * @return the state file
+     */
+    public static File getStateFile(Project rootProject) {
+        return new File(rootProject.getBuildDir(), STATE_FILE);
+    }
+
+    /**
+     * Calculates the inputs of the alignment ; the files of the build along with the configuration.
+     *
+     * @param files the files of the build as returned by {@link #filesOf(Project)}
+     * @param configuration the current configuration
+     * @return a sorted map of each input to the hash of its (normalised) content
+     */
+    public static SortedMap<String, String> inputsOf(Map<String, String> files, Configuration configuration) {
+        final SortedMap<String, String> result = new TreeMap<>(files);
+
+        result.put("gme", hash(ManifestUtils.getManifestInformation()));
+
+        final Properties properties = configuration.getProperties();
+        Arrays.stream(Configuration.class.getMethods())
+                .map(method -> method.getAnnotation(Key.class))
+                .filter(Objects::nonNull)
+                .map(Key::value)
+                .filter(properties::containsKey)
+                .forEach(k -> result.put("property:" + k, hash(String.valueOf(properties.get(k)))));
+        properties.stringPropertyNames()
+                .stream()
+                .filter(k -> PREFIXED_PROPERTIES.stream().anyMatch(k::startsWith))
+                .forEach(k -> result.put("property:" + k, hash(properties.getProperty(k))));
+
+        return result;
+    }
+
+    /**
+     * Calculates the file inputs of the alignment ; the build scripts, settings, properties and lockfiles of every
+     * project and the files shared by the whole build (see {@link #sharedFilesOf(Project)}).
+     *
+     * @param rootProject the root project
+     * @return a sorted map of the path of each file, relative to the root directory, to the hash of its (normalised)
+     *         content
+     */
+    public static SortedMap<String, String> filesOf(Project rootProject) {
+        final SortedMap<String, String> result = sharedFilesOf(rootProject);
+
+        for (Project project : rootProject.getAllprojects()) {
+            result.putAll(projectFilesOf(project));
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the file inputs of the scan of a single project ; the files of the project itself and of each of its
+     * parents (which may configure it, e.g. through {@code subprojects}), including the root build script and settings,
+     * and the files shared by the whole build (see {@link #sharedFilesOf(Project)}).
+     *
+     * @param project the project to be scanned
+     * @return a sorted map of the path of each file, relative to the root directory, to the hash of its (normalised)
+     *         content
+     */
+    public static SortedMap<String, String> scanFilesOf(Project project) {
+        final SortedMap<String, String> result = sharedFilesOf(project.getRootProject());
+
+        for (Project current = project; current != null; current = current.getParent()) {
+            result.putAll(projectFilesOf(current));
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the files shared by the whole build ; the scripts within the {@code gradle} directory and the
+     * contents of {@code buildSrc}. The name of the root project is included too as the settings are normalised
+     * without it.
+     *
+     * @param rootProject the root project
+     * @return a sorted map of the path of each file, relative to the root directory, to the hash of its (normalised)
+     *         content
+     */
+    public static SortedMap<String, String> sharedFilesOf(Project rootProject) {
+        final File rootDir = rootProject.getRootDir();
+        final SortedMap<String, String> result = new TreeMap<>();
+
+        final File gradleScriptsDirectory = new File(rootDir, GRADLE);
+        if (gradleScriptsDirectory.isDirectory()) {
+            for (File script : FileUtils.listFiles(gradleScriptsDirectory, new String[] { "gradle", "kts" }, true)) {
+                if (!script.getName().equals(GME_REPOS)) {
+                    result.put(relativePath(rootDir, script), hash(normalise(readLines(script))));
+                }
+            }
+        }
+        final File buildSrc = new File(rootDir, BUILD_SRC);
+        if (buildSrc.isDirectory()) {
+            // The build output of buildSrc itself is not an input.
+            final IOFileFilter directories = FileFilterUtils.asFileFilter(
+                    (FileFilter) d -> !d.getParentFile().equals(buildSrc) || !BUILD_SRC_OUTPUTS.contains(d.getName()));
+            for (File file : FileUtils.listFiles(buildSrc, TrueFileFilter.INSTANCE, directories)) {
+                result.put(relativePath(rootDir, file), hash(readBytes(file)));
+            }
+        }
+        result.put(ROOT_PROJECT_NAME, hash(rootProject.getName()));
+        return result;
+    }
+
+    /**
+     * Calculates the files of a single project ; the build scripts (and, for the root project, settings), properties
+     * and lockfiles within its directory.
+     *
+     * @param project the project
+     * @return a sorted map of the path of each file, relative to the root directory, to the hash of its (normalised)
+     *         content
+     */
+    public static SortedMap<String, String> projectFilesOf(Project project) {
+        final File rootDir = project.getRootDir();
+        final SortedMap<String, String> result = new TreeMap<>();
+
+        final File[] scripts = project.getProjectDir().listFiles(
+                (dir, name) -> (name.endsWith(".gradle") || name.endsWith(".gradle.kts")) && !name.equals(GME)
+                        && !name.equals(GME_PLUGINCONFIGS));
+        if (scripts != null) {
+            for (File script : scripts) {
+                final List<String> lines = readLines(script);
+                result.put(relativePath(rootDir, script),
+                        hash(SETTINGS.contains(script.getName()) ? normaliseSettings(lines) : normalise(lines)));
+            }
+        }
+        final File properties = new File(project.getProjectDir(), "gradle.properties");
+        if (properties.isFile()) {
+            result.put(relativePath(rootDir, properties), hash(readLines(properties)));
+        }
+        final File[] lockfiles = LockFileIO.getLocksRootPath(project).toFile()
+                .listFiles((dir, name) -> name.endsWith(LOCKFILE_EXTENSION)
+                        || name.endsWith(LOCKFILE_EXTENSION + UNUSED_EXTENSION));
+        if (lockfiles != null) {
+            for (File lockfile : lockfiles) {
+                result.put(relativePath(rootDir, lockfile).replaceFirst(UNUSED_EXTENSION + '$', ""),
+                        hash(readLines(lockfile)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the stored state matches the current inputs and outputs.
+     *
+     * @param stateFile the file the state was stored in
+     * @param rootDir the root directory of the build
+     * @param inputs the current inputs as returned by {@link #inputsOf(Map, Configuration)}
+     * @param outputs the outputs of the alignment
+     * @return true if the last alignment is still current
+     */
+    public static boolean isCurrent(File stateFile, File rootDir, Map<String, String> inputs,
+            Collection<File> outputs) {
+        if (!stateFile.isFile()) {
+            return false;
+        }
+        final Properties state = new Properties();
+
+        try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+            state.load(in);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read {}", stateFile, e);
+        }
+
+        final Map<String, String> expected = new HashMap<>();
+        state.stringPropertyNames().forEach(k -> expected.put(k, state.getProperty(k)));
+        final Map<String, String> actual = state(rootDir, inputs, outputs);
+
+        return actual != null && expected.equals(actual);
+    }
+
+    /**
+     * Stores the inputs along with the outputs, as they are now, of a completed alignment.
+     *
+     * @param stateFile the file to store the state in
+     * @param rootDir the root directory of the build
+     * @param inputs the inputs the alignment was performed with
+     * @param outputs the outputs of the alignment
+     */
+    public static void write(File stateFile, File rootDir, Map<String, String> inputs, Collection<File> outputs) {
+        final Map<String, String> actual = state(rootDir, inputs, outputs);
+        final Properties state = new Properties();
+
+        if (actual == null) {
+            FileUtils.deleteQuietly(stateFile);
+            return;
+        }
+        state.putAll(actual);
+
+        try {
+            Files.createDirectories(stateFile.getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(stateFile.toPath())) {
+                state.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to write {}", stateFile, e);
+        }
+    }
+
+    /**
+     * Removes the lines the alignment injects into a build script ; a GME marker that is the first non blank line,
+     * preceded by blank lines and followed by up to two blank lines, and a GME marker that is the last non blank line,
+     * preceded by up to one blank line. Any other line, including blank lines, is kept.
+     *
+     * @param lines the lines of the script
+     * @return the normalised lines
+     */
+    static List<String> normalise(List<String> lines) {
+        final List<String> result = new ArrayList<>(lines);
+
+        final int first = firstNonBlank(result);
+        if (first < result.size() && INJECTED_FIRST_LINES.contains(result.get(first).trim())) {
+            result.subList(0, first + 1).clear();
+            for (int i = 0; i < INJECTED_BLANK_LINES && !result.isEmpty() && result.get(0).isEmpty(); i++) {
+                result.remove(0);
+            }
+        }
+        final int last = lastNonBlank(result);
+        if (last >= 0 && INJECTED_LAST_LINES.contains(result.get(last).trim())) {
+            removeTrailing(result, last);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the root project name appended by {@link SettingsFileIO#writeProjectNameIfNeeded(File)}, i.e. if it is
+     * the last non blank line preceded by up to one blank line, from the settings. As a name that was already present
+     * may be removed too, the name of the root project is an input of its own.
+     *
+     * @param lines the lines of the settings
+     * @return the normalised lines
+     */
+    static List<String> normaliseSettings(List<String> lines) {
+        final List<String> result = new ArrayList<>(lines);
+
+        final int last = lastNonBlank(result);
+        if (last >= 0 && result.get(last).startsWith(SettingsFileIO.GENERATED_PROJECT_NAME)
+                && result.get(last).endsWith("'")) {
+            removeTrailing(result, last);
+        }
+        return result;
+    }
+
+    private static int firstNonBlank(List<String> lines) {
+        int result = 0;
+        while (result < lines.size() && lines.get(result).trim().isEmpty()) {
+            result++;
+        }
+        return result;
+    }
+
+    private static int lastNonBlank(List<String> lines) {
+        int result = lines.size() - 1;
+        while (result >= 0 && lines.get(result).trim().isEmpty()) {
+            result--;
+        }
+        return result;
+    }
+
+    // Removes the line at index, which was appended on a new line of its own, and all lines after it.
+    private static void removeTrailing(List<String> lines, int index) {
+        lines.subList(index, lines.size()).clear();
+        if (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+    }
+
+    private static Map<String, String> state(File rootDir, Map<String, String> inputs, Collection<File> outputs) {
+        final Map<String, String> result = new HashMap<>(inputs);
+
+        for (File output : outputs) {
+            if (!output.isFile()) {
+                return null;
+            }
+            result.put(OUTPUT_PREFIX + relativePath(rootDir, output), hash(readBytes(output)));
+        }
+        return result;
+    }
+
+    private static List<String> readLines(File file) {
+        try {
+            return FileUtils.readLines(file, Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read {}", file, e);
+        }
+    }
+
+    private static byte[] readBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read {}", file, e);
+        }
+    }
+
+    private static String relativePath(File rootDir, File file) {
+        return rootDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String hash(List<String> lines) {
+        return hash(String.join("\n", lines));
+    }
+
+    /**
+     * Calculates the SHA-256 of the value.
+     *
+     * @param value the value to hash
+     * @return the hex encoded hash
+     */
+    public static String hash(String value) {
+        return hash(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(byte[] value) {
+        try {
+            final StringBuilder result = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(value)) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ManipulationUncheckedException(e);
+        }
+    }
+}
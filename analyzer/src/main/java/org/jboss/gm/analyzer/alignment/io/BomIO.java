@@ -0,0 +1,162 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.common.logging.GMLogger;
+
+/**
+ * Reads the managed dependency versions of BOMs from local Maven repositories, without any network access.
+ * <p>
+ * The dependency management and properties of each BOM's parents are inherited, <code>${...}</code> expressions are
+ * interpolated and BOMs imported with the <code>import</code> scope are read recursively. A dependency managed more
+ * than once keeps the first version found, so a BOM takes precedence over its parents and imports, and the earlier of
+ * the BOMs read takes precedence over the later ones (as with the PME <code>dependencyManagement</code> property).
+ */
+public final class BomIO {
+
+    private static final Logger logger = GMLogger.getLogger(BomIO.class);
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+
+    private BomIO() {
+    }
+
+    /**
+     * Reads the managed dependency versions of the BOMs.
+     *
+     * @param boms the BOMs to read, in order of precedence
+     * @param repositories the root directories of the local Maven repositories holding the BOMs and their parents
+     * @return the version of each managed dependency, keyed by its group and artifact
+     */
+    public static Map<ProjectRef, String> read(List<ProjectVersionRef> boms, List<File> repositories) {
+        final Map<ProjectRef, String> result = new HashMap<>();
+        final Set<ProjectVersionRef> visited = new HashSet<>();
+
+        for (ProjectVersionRef bom : boms) {
+            read(bom, repositories, visited, result);
+        }
+        logger.info("Read {} managed dependencies from BOMs {}", result.size(), boms);
+        return result;
+    }
+
+    private static void read(ProjectVersionRef bom, List<File> repositories, Set<ProjectVersionRef> visited,
+            Map<ProjectRef, String> result) {
+        if (!visited.add(bom)) {
+            return;
+        }
+        // The hierarchy from the BOM up to its furthest parent.
+        final List<Model> hierarchy = new ArrayList<>();
+        for (ProjectVersionRef current = bom; current != null;) {
+            final Model model = readModel(current, repositories);
+            final Parent parent = model.getParent();
+
+            hierarchy.add(model);
+            current = parent == null ? null
+                    : new SimpleProjectVersionRef(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+        }
+
+        final Map<String, String> properties = new HashMap<>();
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            final Properties modelProperties = hierarchy.get(i).getProperties();
+            modelProperties.stringPropertyNames().forEach(k -> properties.put(k, modelProperties.getProperty(k)));
+        }
+        properties.put("project.groupId", bom.getGroupId());
+        properties.put("project.artifactId", bom.getArtifactId());
+        properties.put("project.version", bom.getVersionString());
+        properties.put("groupId", bom.getGroupId());
+        properties.put("version", bom.getVersionString());
+
+        final Map<ProjectRef, String> managed = new LinkedHashMap<>();
+        final List<ProjectVersionRef> imports = new ArrayList<>();
+        for (Model model : hierarchy) {
+            if (model.getDependencyManagement() == null) {
+                continue;
+            }
+            for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                final String groupId = interpolate(dependency.getGroupId(), properties);
+                final String artifactId = interpolate(dependency.getArtifactId(), properties);
+                final String version = interpolate(dependency.getVersion(), properties);
+
+                if (groupId == null || artifactId == null || version == null) {
+                    logger.debug("Ignoring managed dependency {} of BOM {} as it can't be interpolated", dependency,
+                            bom);
+                } else if ("import".equals(dependency.getScope()) && "pom".equals(dependency.getType())) {
+                    imports.add(new SimpleProjectVersionRef(groupId, artifactId, version));
+                } else {
+                    managed.putIfAbsent(new SimpleProjectRef(groupId, artifactId), version);
+                }
+            }
+        }
+        managed.forEach(result::putIfAbsent);
+        for (ProjectVersionRef imported : imports) {
+            read(imported, repositories, visited, result);
+        }
+    }
+
+    private static Model readModel(ProjectVersionRef gav, List<File> repositories) {
+        for (File repository : repositories) {
+            final File pom = new File(repository, gav.getGroupId().replace('.', File.separatorChar) + File.separator
+                    + gav.getArtifactId() + File.separator + gav.getVersionString() + File.separator
+                    + gav.getArtifactId() + '-' + gav.getVersionString() + ".pom");
+
+            if (pom.isFile()) {
+                try (InputStream in = Files.newInputStream(pom.toPath())) {
+                    return new MavenXpp3Reader().read(in, false);
+                } catch (IOException | XmlPullParserException e) {
+                    throw new ManipulationUncheckedException("Unable to read BOM {}", pom, e);
+                }
+            }
+        }
+        throw new ManipulationUncheckedException("Unable to find BOM {} within the repositories {}", gav,
+                repositories);
+    }
+
+    /**
+     * @return the value with its expressions replaced, or null if the value is null or an expression can't be
+     *         resolved
+     */
+    private static String interpolate(String value, Map<String, String> properties) {
+        String result = value;
+
+        // Properties may refer to other properties ; a bounded number of passes guards against cycles.
+        for (int pass = 0; result != null && result.contains("${") && pass < 10; pass++) {
+            final Matcher matcher = EXPRESSION.matcher(result);
+            final StringBuffer buffer = new StringBuffer();
+
+            while (matcher.find()) {
+                final String replacement = properties.get(matcher.group(1));
+                if (replacement == null) {
+                    return null;
+                }
+                matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(buffer);
+            result = buffer.toString();
+        }
+        return result == null || result.contains("${") ? null : result;
+    }
+}
@@ -0,0 +1,296 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.core.util.PropertiesUtils;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.jboss.gm.analyzer.alignment.util.DependencyPropertyParser;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.logging.GMLogger;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+
+/**
+ * Reads the <code>dependencyOverride.*</code> and <code>dependencyExclusion.*</code> properties from the file or URL
+ * configured by {@link Configuration#dependencyRulesFile()}, so that builds with thousands of rules need not pass them
+ * on the command line.
+ * <p>
+ * The file is read a line at a time and every key is validated with {@link DependencyPropertyParser}, reporting the
+ * offending line. This is not a {@link java.util.Properties} file ; see {@link Configuration#dependencyRulesFile()}
+ * for the format. The rules are cached by the SHA-256 of the content, so an unchanged file is only hashed, rather than
+ * parsed and validated again, by later builds within the same Gradle daemon.
+ * <p>
+ * Within a build the file and its hash are held in the root project extensions, so a URL is only downloaded (to a
+ * temporary file that is deleted when the build finishes) and hashed once however many times the rules are read.
+ */
+public final class DependencyRulesIO {
+
+    private static final String OVERRIDE = "dependencyOverride.";
+
+    private static final String EXCLUSION = "dependencyExclusion.";
+
+    private static final String NAME = "gmeDependencyRules";
+
+    private static final int MAX_CACHED = 4;
+
+    private static final Map<String, Map<String, String>> CACHE = Collections
+            .synchronizedMap(new LinkedHashMap<String, Map<String, String>>(MAX_CACHED, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            });
+
+    private static final Logger logger = GMLogger.getLogger(DependencyRulesIO.class);
+
+    private DependencyRulesIO() {
+    }
+
+    /**
+     * Returns the properties with the prefix, such as <code>dependencyOverride.</code>, from the system properties
+     * followed by those from the configured rules file. A key within both uses the value of the system property.
+     *
+     * @param configuration the current Configuration
+     * @param projects the current Projects, used to resolve a relative path
+     * @param prefix the prefix of the properties
+     * @return the properties, without their prefix, in order of precedence
+     */
+    public static Map<String, String> getPropertiesByPrefix(Configuration configuration, Set<Project> projects,
+            String prefix) {
+        final Map<String, String> result = new LinkedHashMap<>(
+                PropertiesUtils.getPropertiesByPrefix(configuration.getProperties(), prefix));
+
+        if (!isEmpty(configuration.dependencyRulesFile())) {
+            final Map<String, String> rules = projects.isEmpty() ? read(configuration.dependencyRulesFile(), null)
+                    : read(getSource(configuration.dependencyRulesFile(), projects.iterator().next()));
+
+            rules.forEach((key, value) -> {
+                if (key.startsWith(prefix)) {
+                    result.putIfAbsent(key.substring(prefix.length()), value);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Reads the rules. Outside of a build a URL is downloaded by each call.
+     *
+     * @param location the file or URL to read
+     * @param rootDir the directory a relative path is resolved against
+     * @return the properties, including their prefix, in the order they first appear
+     */
+    public static Map<String, String> read(String location, File rootDir) {
+        final Source source = Source.of(location, rootDir);
+        try {
+            return read(source);
+        } finally {
+            source.delete();
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 of the content of the rules, so that a change to them is an input of the alignment.
+     *
+     * @param location the file or URL to read
+     * @param project any project of the build, whose root directory a relative path is resolved against
+     * @return the hex encoded hash
+     */
+    public static String hash(String location, Project project) {
+        return getSource(location, project).hash;
+    }
+
+    // Package private for testing
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Returns the rules file of the current build, downloading a URL the first time it is requested.
+     *
+     * @param location the file or URL to read
+     * @param project any project of the build
+     * @return the file and its hash
+     */
+    private static synchronized Source getSource(String location, Project project) {
+        final Project rootProject = project.getRootProject();
+        final ExtraPropertiesExtension extraProperties = rootProject.getExtensions().getExtraProperties();
+
+        if (extraProperties.has(NAME)) {
+            final Source source = (Source) extraProperties.get(NAME);
+            if (source.location.equals(location)) {
+                return source;
+            }
+            source.delete();
+        }
+        final Source source = Source.of(location, rootProject.getRootDir());
+
+        if (source.downloaded) {
+            rootProject.getGradle().buildFinished(result -> source.delete());
+        }
+        extraProperties.set(NAME, source);
+        return source;
+    }
+
+    private static Map<String, String> read(Source source) {
+        final String location = source.location;
+        final Map<String, String> cached = CACHE.get(source.hash);
+
+        if (cached != null) {
+            logger.debug("Using the cached dependency rules for {} ({})", location, source.hash);
+            return cached;
+        }
+        final Map<String, String> result = new LinkedHashMap<>();
+        int lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(source.file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
+                    continue;
+                }
+                final int separator = line.indexOf('=');
+                final String key = (separator < 0 ? line : line.substring(0, separator)).trim();
+                final String value = separator < 0 ? "" : line.substring(separator + 1).trim();
+
+                validate(key, location, lineNumber);
+                // As with java.util.Properties a later duplicate replaces the value of an earlier one.
+                result.put(key, value);
+            }
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read dependency rules from {}", location, e);
+        }
+        logger.info("Read {} dependency rules from {}", result.size(), location);
+
+        final Map<String, String> rules = Collections.unmodifiableMap(result);
+        CACHE.put(source.hash, rules);
+        return rules;
+    }
+
+    private static void validate(String key, String location, int lineNumber) {
+        final String rule;
+
+        if (key.startsWith(OVERRIDE)) {
+            rule = key.substring(OVERRIDE.length());
+        } else if (key.startsWith(EXCLUSION)) {
+            rule = key.substring(EXCLUSION.length());
+        } else {
+            throw new InvalidUserDataException("Line " + lineNumber + " of " + location + " is neither a "
+                    + OVERRIDE + "* nor a " + EXCLUSION + "* property: " + key);
+        }
+        try {
+            DependencyPropertyParser.parse(rule);
+        } catch (InvalidUserDataException e) {
+            throw new InvalidUserDataException("Line " + lineNumber + " of " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String hash(Path file, String location) {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file),
+                MessageDigest.getInstance("SHA-256"))) {
+            final byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // Only the digest is required
+            }
+            final StringBuilder result = new StringBuilder();
+            for (byte b : in.getMessageDigest().digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read dependency rules from {}", location, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ManipulationUncheckedException(e);
+        }
+    }
+
+    private static URL toURL(String location) {
+        if (!location.contains("://") && !location.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return new URL(location);
+        } catch (MalformedURLException e) {
+            throw new ManipulationUncheckedException("Invalid dependency rules URL {}", location, e);
+        }
+    }
+
+    /**
+     * The local copy of the rules and the hash of its content.
+     */
+    private static final class Source {
+        private final String location;
+
+        private final Path file;
+
+        private final String hash;
+
+        private final boolean downloaded;
+
+        private Source(String location, Path file, boolean downloaded) {
+            this.location = location;
+            this.file = file;
+            this.downloaded = downloaded;
+            this.hash = hash(file, location);
+        }
+
+        private static Source of(String location, File rootDir) {
+            final URL url = toURL(location);
+
+            if (url == null || "file".equals(url.getProtocol())) {
+                File file = url == null ? new File(location) : FileUtils.toFile(url);
+
+                if (!file.isAbsolute() && rootDir != null) {
+                    file = new File(rootDir, file.getPath());
+                }
+                return new Source(location, file.toPath(), false);
+            }
+            Path download = null;
+            try {
+                download = Files.createTempFile("gme-rules", ".properties");
+                try (InputStream in = url.openStream()) {
+                    Files.copy(in, download, StandardCopyOption.REPLACE_EXISTING);
+                }
+                logger.info("Downloaded dependency rules from {}", location);
+                final Source result = new Source(location, download, true);
+                download = null;
+                return result;
+            } catch (IOException e) {
+                throw new ManipulationUncheckedException("Unable to download dependency rules from {}", location, e);
+            } finally {
+                if (download != null) {
+                    download.toFile().delete();
+                }
+            }
+        }
+
+        private void delete() {
+            if (downloaded) {
+                file.toFile().delete();
+            }
+        }
+    }
+}
@@ -8,15 +8,20 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.atlas.ident.ref.InvalidRefException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.Project;
@@ -28,6 +33,25 @@ public final class LockFileIO {
     private LockFileIO() {
     }
 
+    /**
+     * Builds an index of the locked version of each module found within the lockfiles. Lockfiles are read in name
+     * order so if a module is locked to different versions in several lockfiles the result is deterministic (the
+     * last one read wins).
+     *
+     * @param locksRootPath the directory containing the lockfiles
+     * @return a map of the locked module to its version
+     */
+    public static Map<ProjectRef, String> lockedVersionsFromLockfiles(Path locksRootPath) {
+        final Map<ProjectRef, String> result = new HashMap<>();
+        getAllLockfiles(locksRootPath)
+                .stream()
+                .sorted()
+                .forEach(f -> readProjectVersionRefLocksOfFile(f)
+                        .forEach(p -> result.put(new SimpleProjectRef(p.getGroupId(), p.getArtifactId()),
+                                p.getVersionString())));
+        return result;
+    }
+
     public static Set<ProjectVersionRef> allProjectVersionRefsFromLockfiles(Path locksRootPath) {
         final Set<ProjectVersionRef> result = new HashSet<>();
         getAllLockfiles(locksRootPath).forEach(f -> result.addAll(readProjectVersionRefLocksOfFile(f)));
@@ -47,7 +71,7 @@ public final class LockFileIO {
                         }
                     })
                     .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
         } catch (IOException e) {
             throw new ManipulationUncheckedException("Unable to parse lockfile {}", lockfile, e);
         }
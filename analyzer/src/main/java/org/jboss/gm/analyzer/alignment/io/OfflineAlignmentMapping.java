@@ -0,0 +1,183 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.commonjava.maven.atlas.ident.ref.InvalidRefException;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.common.logging.GMLogger;
+import org.jboss.gm.common.utils.SerializationUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Aligned versions read from local files rather than returned by the REST endpoint. The versions are held in hash
+ * maps keyed by the original GAV. The following formats are read:
+ * <ul>
+ * <li>A JSON array of the lookups returned by the REST endpoint, such as the <code>*-da-response.json</code> test
+ * fixtures. Entries with a <code>bestMatchVersion</code> are dependency versions and entries with a
+ * <code>latestVersion</code> are project versions.</li>
+ * <li>An alignment report (see {@link org.jboss.gm.common.Configuration#reportJsonOutputFile()}) written by a previous
+ * alignment. Its aligned module versions are used as the existing project versions.</li>
+ * <li>A CSV file (any file not ending in <code>.json</code>) where each line is either
+ * <code>groupId:artifactId:version,alignedVersion</code> or <code>groupId,artifactId,version,alignedVersion</code>.
+ * Blank lines and lines starting with <code>#</code> are ignored.</li>
+ * <li>A directory, in which case every JSON and CSV file within it, or its subdirectories, that is in one of the
+ * above formats is read in path order. Later files take precedence.</li>
+ * </ul>
+ */
+public final class OfflineAlignmentMapping {
+
+    private static final String JSON = ".json";
+
+    private static final String CSV = ".csv";
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final Map<ProjectVersionRef, String> versions = new HashMap<>();
+
+    private final Map<ProjectVersionRef, String> projectVersions = new HashMap<>();
+
+    private OfflineAlignmentMapping() {
+    }
+
+    /**
+     * Reads the aligned versions.
+     *
+     * @param source the file or directory to read
+     * @return the aligned versions
+     */
+    public static OfflineAlignmentMapping read(File source) {
+        final OfflineAlignmentMapping result = new OfflineAlignmentMapping();
+        final Path path = source.toPath();
+
+        if (Files.isDirectory(path)) {
+            final List<Path> files;
+            try (Stream<Path> stream = Files.walk(path)) {
+                files = stream.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(JSON) || p.toString().endsWith(CSV))
+                        .sorted()
+                        .collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new ManipulationUncheckedException("Unable to read offline alignment directory {}", source, e);
+            }
+            for (Path file : files) {
+                if (!result.readFile(file)) {
+                    result.logger.debug("Ignoring unrecognised offline alignment file {}", file);
+                }
+            }
+        } else if (!result.readFile(path)) {
+            throw new ManipulationUncheckedException("Unrecognised format of offline alignment file {}", source);
+        }
+        result.logger.info("Read {} dependency and {} project versions from {}", result.versions.size(),
+                result.projectVersions.size(), source);
+        return result;
+    }
+
+    /**
+     * @return the aligned version of each original dependency GAV
+     */
+    public Map<ProjectVersionRef, String> getVersions() {
+        return versions;
+    }
+
+    /**
+     * @return the existing version of each original project GAV
+     */
+    public Map<ProjectVersionRef, String> getProjectVersions() {
+        return projectVersions;
+    }
+
+    private boolean readFile(Path file) {
+        try {
+            if (!file.toString().endsWith(JSON)) {
+                return readCsv(file);
+            }
+            final JsonNode root = SerializationUtils.getObjectMapper().readTree(file.toFile());
+
+            if (root != null && root.isArray()) {
+                return readLookups(root);
+            } else if (root != null && root.has("modules")) {
+                return readReport(root);
+            }
+            return false;
+        } catch (IOException | InvalidRefException e) {
+            throw new ManipulationUncheckedException("Unable to read offline alignment file {}", file, e);
+        }
+    }
+
+    private boolean readLookups(JsonNode lookups) {
+        for (JsonNode lookup : lookups) {
+            if (!lookup.hasNonNull("groupId") || !lookup.hasNonNull("artifactId") || !lookup.hasNonNull("version")) {
+                return false;
+            }
+        }
+        for (JsonNode lookup : lookups) {
+            final ProjectVersionRef gav = new SimpleProjectVersionRef(lookup.get("groupId").asText(),
+                    lookup.get("artifactId").asText(), lookup.get("version").asText());
+
+            if (lookup.hasNonNull("bestMatchVersion")) {
+                versions.put(gav, lookup.get("bestMatchVersion").asText());
+            }
+            if (lookup.hasNonNull("latestVersion")) {
+                projectVersions.put(gav, lookup.get("latestVersion").asText());
+            }
+        }
+        return true;
+    }
+
+    private boolean readReport(JsonNode report) {
+        readReportModule(report.path("executionRoot"));
+        for (JsonNode module : report.get("modules")) {
+            readReportModule(module.path("gav"));
+            module.path("dependencies").fields().forEachRemaining(d -> {
+                if (d.getValue().hasNonNull("version")) {
+                    versions.put(SimpleProjectVersionRef.parse(d.getKey()), d.getValue().get("version").asText());
+                }
+            });
+        }
+        return true;
+    }
+
+    private void readReportModule(JsonNode gav) {
+        if (gav.hasNonNull("originalGAV") && gav.hasNonNull("version")) {
+            projectVersions.put(SimpleProjectVersionRef.parse(gav.get("originalGAV").asText()),
+                    gav.get("version").asText());
+        }
+    }
+
+    private boolean readCsv(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] columns = line.split("\\s*,\\s*");
+
+                if (columns.length == 2) {
+                    versions.put(SimpleProjectVersionRef.parse(columns[0]), columns[1]);
+                } else if (columns.length == 4) {
+                    versions.put(new SimpleProjectVersionRef(columns[0], columns[1], columns[2]), columns[3]);
+                } else {
+                    throw new ManipulationUncheckedException("Invalid line '{}' in offline alignment file {}", line,
+                            file);
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,290 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.logging.GMLogger;
+
+/**
+ * An on disk cache of the aligned versions returned by the REST endpoint, shared between builds. GAVs without an
+ * aligned version are cached too, so a later build only queries the endpoint for GAVs it has not seen within the
+ * time to live.
+ * <p>
+ * Each combination of endpoint, REST mode and brew pull setting has its own file. The file is read once by the first
+ * lookup ; later lookups use that content. Access is serialised both within the JVM and, through a file lock, between
+ * builds ; updates are merged with the current content of the file and written atomically. The cache is purely an
+ * optimisation so any failure to read or write it (including failing to obtain the lock in time) is logged and
+ * ignored.
+ */
+public class PersistentTranslationCache {
+
+    private static final Object LOCK = new Object();
+
+    private static final long LOCK_RETRY = 50;
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final Path file;
+
+    private final Path lockFile;
+
+    private final long ttl;
+
+    private final int maxSize;
+
+    private final long lockTimeout;
+
+    private final Map<String, Entry> updates = new HashMap<>();
+
+    /**
+     * The content of the file, read by the first lookup and refreshed by each store.
+     */
+    private Map<String, Entry> entries;
+
+    /**
+     * Creates the cache for the endpoint, REST mode and brew pull setting of the configuration.
+     *
+     * @param directory the directory holding the cache
+     * @param configuration the current configuration
+     */
+    public PersistentTranslationCache(File directory, Configuration configuration) {
+        this(new File(directory, "rest-" + AnalysisStateIO.hash(configuration.daEndpoint() + '|'
+                + configuration.restMode() + '|' + configuration.restBrewPullActive()) + ".properties"),
+                TimeUnit.MINUTES.toMillis(configuration.restCacheTtl()), configuration.restCacheMaxSize());
+    }
+
+    // Package private for testing
+    PersistentTranslationCache(File file, long ttl, int maxSize) {
+        this(file, ttl, maxSize, TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Package private for testing
+    PersistentTranslationCache(File file, long ttl, int maxSize, long lockTimeout) {
+        this.file = file.toPath();
+        this.lockFile = file.toPath().resolveSibling(file.getName() + ".lock");
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Looks up the GAVs within the cache.
+     *
+     * @param gavs the GAVs to look up
+     * @param hits populated with the aligned version of each GAV found in the cache that has one
+     * @return the GAVs not found in the cache, which must be looked up via the REST endpoint
+     */
+    public synchronized List<ProjectVersionRef> lookup(List<ProjectVersionRef> gavs,
+            Map<ProjectVersionRef, String> hits) {
+        final long now = System.currentTimeMillis();
+        final List<ProjectVersionRef> misses = new ArrayList<>();
+
+        if (entries == null) {
+            entries = locked(this::read, Collections.emptyMap());
+        }
+
+        for (ProjectVersionRef gav : gavs) {
+            final Entry entry = entries.get(gav.toString());
+
+            if (entry == null || entry.isExpired(now, ttl)) {
+                misses.add(gav);
+            } else {
+                if (!entry.version.isEmpty()) {
+                    hits.put(gav, entry.version);
+                }
+                updates.put(gav.toString(), new Entry(entry.created, now, entry.version));
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Stores the results of looking up the GAVs via the REST endpoint and records the use of any GAVs found by
+     * {@link #lookup(List, Map)}. Expired entries are removed and, if the cache has grown beyond its maximum size,
+     * the least recently used entries are evicted. This should be called after the lookups even if every GAV was
+     * found, as otherwise the use of those entries is not recorded.
+     *
+     * @param gavs the GAVs that were looked up
+     * @param results the aligned versions returned by the REST endpoint
+     */
+    public synchronized void store(List<ProjectVersionRef> gavs, Map<ProjectVersionRef, String> results) {
+        final long now = System.currentTimeMillis();
+
+        for (ProjectVersionRef gav : gavs) {
+            final String version = results.get(gav);
+            updates.put(gav.toString(), new Entry(now, now, version == null ? "" : version));
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        // Other builds may have updated the file since it was read, so merge with its current content.
+        final Map<String, Entry> merged = locked(() -> {
+            final Map<String, Entry> current = read();
+
+            current.putAll(updates);
+            current.values().removeIf(e -> e.isExpired(now, ttl));
+            if (current.size() > maxSize) {
+                final List<Map.Entry<String, Entry>> byAccess = new ArrayList<>(current.entrySet());
+                byAccess.sort(Comparator.comparingLong(e -> e.getValue().accessed));
+                byAccess.subList(0, current.size() - maxSize).forEach(e -> current.remove(e.getKey()));
+            }
+            write(current);
+            return current;
+        }, null);
+        if (merged != null) {
+            entries = merged;
+        }
+        updates.clear();
+    }
+
+    private Map<String, Entry> read() throws IOException {
+        final Map<String, Entry> result = new HashMap<>();
+
+        if (Files.exists(file)) {
+            final Properties properties = new Properties();
+
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                final Entry entry = Entry.parse(properties.getProperty(key));
+                if (entry != null) {
+                    result.put(key, entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void write(Map<String, Entry> entries) throws IOException {
+        final Properties properties = new Properties();
+        final Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+        entries.forEach((k, v) -> properties.setProperty(k, v.toString()));
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                properties.store(out, null);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Runs the callable while holding the lock on the cache. The lock is polled rather than waited upon ; a lock held
+     * by another class loader within this JVM (e.g. another build in the same daemon) is reported as an
+     * {@link OverlappingFileLockException} rather than blocking, and either way the build should not wait indefinitely
+     * for what is only an optimisation.
+     *
+     * @param callable the callable to run
+     * @param fallback the value to return if the cache can't be accessed
+     * @return the result of the callable
+     */
+    private <T> T locked(IOCallable<T> callable, T fallback) {
+        synchronized (LOCK) {
+            try {
+                Files.createDirectories(file.getParent());
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE);
+                        FileLock lock = tryLock(channel)) {
+                    if (lock == null) {
+                        logger.warn("Unable to lock REST cache {} within {} ms ; ignoring it", file, lockTimeout);
+                        return fallback;
+                    }
+                    return callable.call();
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to access REST cache {} ; ignoring it ({})", file, e.getMessage());
+                logger.debug("REST cache failure", e);
+                return fallback;
+            }
+        }
+    }
+
+    private FileLock tryLock(FileChannel channel) throws IOException {
+        final long deadline = System.currentTimeMillis() + lockTimeout;
+
+        while (true) {
+            try {
+                final FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    return lock;
+                }
+            } catch (OverlappingFileLockException e) {
+                logger.debug("REST cache {} is locked within this JVM", file);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return null;
+            }
+            try {
+                Thread.sleep(LOCK_RETRY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOCallable<T> {
+        T call() throws IOException;
+    }
+
+    private static final class Entry {
+        private final long created;
+
+        private final long accessed;
+
+        private final String version;
+
+        private Entry(long created, long accessed, String version) {
+            this.created = created;
+            this.accessed = accessed;
+            this.version = version;
+        }
+
+        private boolean isExpired(long now, long ttl) {
+            return now - created >= ttl;
+        }
+
+        private static Entry parse(String value) {
+            final String[] parts = value.split(",", 3);
+
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return created + "," + accessed + ',' + version;
+        }
+    }
+}
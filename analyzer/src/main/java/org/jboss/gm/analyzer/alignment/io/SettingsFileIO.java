@@ -22,6 +22,9 @@ public final class SettingsFileIO {
     private static final Pattern SCM_URL_LINE_EXPR = Pattern.compile("\\s*url\\s*=(?:.*/)([a-zA-Z0-9\\-._]+)");
     private static final String GIT_CONFIG = ".git" + File.separator + "config";
 
+    // The form of the root project name line appended when the settings file doesn't define one.
+    static final String GENERATED_PROJECT_NAME = "rootProject.name='";
+
     private static final Logger logger = GMLogger.getLogger(SettingsFileIO.class);
 
     private SettingsFileIO() {
@@ -56,7 +59,7 @@ public final class SettingsFileIO {
                     try (BufferedWriter writer = new BufferedWriter(new FileWriter(settingsGradle, true))) {
                         // Ensure the marker is on a line by itself.
                         writer.newLine();
-                        writer.write("rootProject.name='" + result + "'");
+                        writer.write(GENERATED_PROJECT_NAME + result + "'");
                         writer.newLine();
                         writer.flush();
                     }
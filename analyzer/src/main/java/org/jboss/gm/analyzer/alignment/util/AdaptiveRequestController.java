@@ -0,0 +1,201 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.io.rest.RestException;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.gradle.api.logging.Logger;
+import org.jboss.gm.analyzer.alignment.io.AnalysisStateIO;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.logging.GMLogger;
+
+/**
+ * Adapts the size of the chunks sent to the REST endpoint, and the number sent concurrently, to the latency of the
+ * endpoint. This uses additive increase / multiplicative decrease: each full chunk that completes within the target
+ * latency grows the chunk size, and the concurrency, a little ; each chunk that is slower halves the chunk size and
+ * each chunk that fails (e.g. due to a timeout) halves both.
+ * <p>
+ * There is one instance per endpoint for the lifetime of the daemon. The learned settings are also stored within the
+ * GME cache directory so that later daemons start from them.
+ */
+public final class AdaptiveRequestController {
+
+    static final int MIN_CHUNK_SIZE = 16;
+
+    /**
+     * The largest chunk that is sent. Translators used with this controller should be created with this as their
+     * maximum request size, so that each chunk is sent as a single request unless it fails and has to be split.
+     */
+    public static final int MAX_CHUNK_SIZE = 1024;
+
+    static final int INITIAL_CHUNK_SIZE = 128;
+
+    static final int CHUNK_SIZE_INCREMENT = 32;
+
+    private static final String CHUNK_SIZE = "chunkSize";
+
+    private static final String CONCURRENCY = "concurrency";
+
+    private static final Map<String, AdaptiveRequestController> instances = new ConcurrentHashMap<>();
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final Path file;
+
+    private int chunkSize = INITIAL_CHUNK_SIZE;
+
+    private int concurrency;
+
+    private int maxConcurrency;
+
+    private long targetLatency;
+
+    // Package private for testing
+    AdaptiveRequestController(File file, int maxConcurrency, long targetLatency) {
+        this.file = file == null ? null : file.toPath();
+        this.concurrency = maxConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatency = targetLatency;
+        load();
+    }
+
+    /**
+     * Returns the controller for the endpoint of the configuration.
+     *
+     * @param directory the GME cache directory holding the learned settings, or null to not store them
+     * @param configuration the current configuration
+     * @return the controller, or null if adaptive requests are disabled or a fixed {@link Configuration#restMaxSize()}
+     *         has been configured
+     */
+    public static AdaptiveRequestController getInstance(File directory, Configuration configuration) {
+        if (!configuration.restAdaptive() || configuration.restMaxSize() != -1) {
+            return null;
+        }
+        final String name = "rest-tuning-" + AnalysisStateIO.hash(configuration.daEndpoint()) + ".properties";
+        final int maxConcurrency = Math.max(1, configuration.restConcurrency());
+        final long targetLatency = TimeUnit.SECONDS.toMillis(configuration.restTargetLatency());
+        final AdaptiveRequestController result = instances.computeIfAbsent(
+                directory == null ? name : new File(directory, name).getPath(),
+                k -> new AdaptiveRequestController(directory == null ? null : new File(directory, name),
+                        maxConcurrency, targetLatency));
+
+        result.configure(maxConcurrency, targetLatency);
+        return result;
+    }
+
+    private synchronized void configure(int maxConcurrency, long targetLatency) {
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatency = targetLatency;
+        concurrency = Math.min(concurrency, maxConcurrency);
+    }
+
+    public synchronized int getChunkSize() {
+        return chunkSize;
+    }
+
+    public synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Looks up the chunk via the translator, recording its latency and whether it failed.
+     *
+     * @param translator the translator to use
+     * @param chunk the GAVs to look up
+     * @return the aligned versions of the GAVs
+     * @throws RestException if the lookup fails
+     */
+    public Map<ProjectVersionRef, String> lookupVersions(Translator translator, List<ProjectVersionRef> chunk)
+            throws RestException {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final Map<ProjectVersionRef, String> result = translator.lookupVersions(chunk);
+            failed = false;
+            return result;
+        } finally {
+            record(chunk.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed);
+        }
+    }
+
+    /**
+     * Adjusts the chunk size and concurrency following a request.
+     *
+     * @param size the number of GAVs in the request
+     * @param latency the time taken by the request in milliseconds
+     * @param failed whether the request failed
+     */
+    // Package private for testing
+    synchronized void record(int size, long latency, boolean failed) {
+        if (failed) {
+            chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+            concurrency = Math.max(1, concurrency / 2);
+        } else if (latency > targetLatency) {
+            chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+        } else if (size >= chunkSize) {
+            // Only a full chunk shows whether the endpoint could cope with a larger one.
+            chunkSize = Math.min(MAX_CHUNK_SIZE, chunkSize + CHUNK_SIZE_INCREMENT);
+            concurrency = Math.min(maxConcurrency, concurrency + 1);
+        }
+        logger.debug("REST request of {} GAVs took {}ms{} ; chunk size is now {} with concurrency {}", size, latency,
+                failed ? " and failed" : "", chunkSize, concurrency);
+    }
+
+    private synchronized void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        final Properties properties = new Properties();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE,
+                    Integer.parseInt(properties.getProperty(CHUNK_SIZE, String.valueOf(INITIAL_CHUNK_SIZE)))));
+            concurrency = Math.min(maxConcurrency, Math.max(1,
+                    Integer.parseInt(properties.getProperty(CONCURRENCY, String.valueOf(maxConcurrency)))));
+            logger.info("Using learned REST chunk size {} with concurrency {}", chunkSize, concurrency);
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Unable to read learned REST settings {} ; ignoring them ({})", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the learned settings so that later daemons start from them.
+     */
+    public synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        final Properties properties = new Properties();
+
+        properties.setProperty(CHUNK_SIZE, String.valueOf(chunkSize));
+        properties.setProperty(CONCURRENCY, String.valueOf(concurrency));
+        try {
+            Files.createDirectories(file.getParent());
+
+            final Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporary)) {
+                    properties.store(out, null);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write learned REST settings {} ; ignoring them ({})", file, e.getMessage());
+        }
+    }
+}
@@ -1,53 +1,63 @@
 package org.jboss.gm.analyzer.alignment.util;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import lombok.experimental.UtilityClass;
 
-import org.apache.commons.lang.StringUtils;
-import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ProjectDependency;
-import org.gradle.api.artifacts.ResolvedDependency;
-import org.gradle.api.artifacts.UnresolvedDependency;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
 
 @UtilityClass
 public class Comparator {
 
     /**
-     * Determines whether the set contains the GAV from the {@link UnresolvedDependency}.
+     * Builds a set of the GAVs of the project dependencies so that membership may be checked in constant time via
+     * the <code>contains</code> methods. Each GAV is represented as a list of group, name and version, any of which
+     * may be null.
      *
-     * @param projectDependencies the set of dependencies of examine
-     * @param unresolvedDependency the UnresolvedDependency to verify
+     * @param projectDependencies the set of dependencies to index
+     * @return the set of GAVs
+     */
+    public static Set<List<String>> toGAVs(Set<ProjectDependency> projectDependencies) {
+        return projectDependencies.stream()
+                .map(p -> gav(p.getGroup(), p.getName(), p.getVersion()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Determines whether the set contains the GAV from the {@link ComponentSelector}. Only module selectors
+     * have a GAV so any other type of selector is never contained.
+     *
+     * @param projectGAVs the GAVs of the project dependencies, as created by {@link #toGAVs(Set)}
+     * @param selector the ComponentSelector to verify
      * @return true if it does match
      */
-    public static boolean contains(Set<ProjectDependency> projectDependencies,
-            UnresolvedDependency unresolvedDependency) {
-        ModuleVersionSelector moduleVersionSelector = unresolvedDependency.getSelector();
-        for (ProjectDependency projectDependency : projectDependencies) {
-            if (StringUtils.equals(moduleVersionSelector.getGroup(), projectDependency.getGroup()) &&
-                    StringUtils.equals(moduleVersionSelector.getName(), projectDependency.getName()) &&
-                    StringUtils.equals(moduleVersionSelector.getVersion(), projectDependency.getVersion())) {
-                return true;
-            }
+    public static boolean contains(Set<List<String>> projectGAVs, ComponentSelector selector) {
+        if (!(selector instanceof ModuleComponentSelector)) {
+            return false;
         }
-        return false;
+        ModuleComponentSelector moduleSelector = (ModuleComponentSelector) selector;
+        return projectGAVs.contains(gav(moduleSelector.getGroup(), moduleSelector.getModule(),
+                moduleSelector.getVersion()));
     }
 
     /**
-     * Determines whether the set contains the GAV from the {@link ResolvedDependency}.
+     * Determines whether the set contains the GAV from the {@link ModuleVersionIdentifier}.
      *
-     * @param projectDependencies the set of dependencies of examine
-     * @param dependency the ResolvedDependency to verify
+     * @param projectGAVs the GAVs of the project dependencies, as created by {@link #toGAVs(Set)}
+     * @param module the ModuleVersionIdentifier to verify
      * @return true if it does match
      */
-    public static boolean contains(Set<ProjectDependency> projectDependencies, ResolvedDependency dependency) {
-        for (ProjectDependency projectDependency : projectDependencies) {
-            if (StringUtils.equals(dependency.getModuleGroup(), projectDependency.getGroup()) &&
-                    StringUtils.equals(dependency.getModuleName(), projectDependency.getName()) &&
-                    StringUtils.equals(dependency.getModuleVersion(), projectDependency.getVersion())) {
-                return true;
-            }
-        }
-        return false;
+    public static boolean contains(Set<List<String>> projectGAVs, ModuleVersionIdentifier module) {
+        return projectGAVs.contains(gav(module.getGroup(), module.getName(), module.getVersion()));
+    }
+
+    private static List<String> gav(String group, String name, String version) {
+        return Arrays.asList(group, name, version);
     }
 }
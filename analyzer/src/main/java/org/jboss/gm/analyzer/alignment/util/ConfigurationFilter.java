@@ -0,0 +1,82 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Determines, by name, which configurations should be resolved. Each pattern is a glob (where <code>*</code>
+ * matches any sequence of characters and <code>?</code> a single character) unless prefixed by
+ * <code>regex:</code> in which case the remainder is treated as a regular expression.
+ * <p>
+ * A configuration is accepted if it matches any include pattern (or there are none) and matches no exclude
+ * pattern.
+ */
+public class ConfigurationFilter {
+
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final List<Pattern> includes;
+
+    private final List<Pattern> excludes;
+
+    public ConfigurationFilter(String[] includes, String[] excludes) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+    }
+
+    /**
+     * Whether the configuration should be resolved.
+     *
+     * @param name the name of the configuration
+     * @return true if the configuration is accepted by the filter
+     */
+    public boolean accept(String name) {
+        if (!includes.isEmpty() && includes.stream().noneMatch(p -> p.matcher(name).matches())) {
+            return false;
+        }
+        return excludes.stream().noneMatch(p -> p.matcher(name).matches());
+    }
+
+    private static List<Pattern> compile(String[] patterns) {
+        final List<Pattern> result = new ArrayList<>();
+
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (StringUtils.isBlank(pattern)) {
+                    continue;
+                }
+                pattern = pattern.trim();
+                if (pattern.startsWith(REGEX_PREFIX)) {
+                    result.add(Pattern.compile(pattern.substring(REGEX_PREFIX.length())));
+                } else {
+                    result.add(Pattern.compile(globToRegex(pattern)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String globToRegex(String glob) {
+        final StringBuilder result = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    result.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                result.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            result.append(Pattern.quote(literal.toString()));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import lombok.experimental.UtilityClass;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.DependencySubstitution;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.ResolutionStrategy;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionRules;
+import org.gradle.api.logging.Logger;
+import org.gradle.internal.Actions;
+import org.jboss.gm.common.logging.GMLogger;
+
+/**
+ * Computes a fingerprint of everything that influences the resolution of a configuration ; its repositories,
+ * attributes, declared dependencies, constraints and resolution strategy. Two configurations with the same
+ * fingerprint, whether in the same project or in sibling projects, resolve to the same dependency graph so that
+ * graph only needs to be resolved once.
+ * <p>
+ * A graph that reaches other projects of the build may lead back to the project owning the configuration, which is
+ * the root of the graph and so is not part of its result. Configurations with project dependencies are therefore
+ * only shared within the owning project.
+ * <p>
+ * Gradle has no public API to query the rules registered on a resolution strategy, so those are examined through
+ * the internal interfaces that back the public {@link ResolutionStrategy} types. Should that fail, the configuration
+ * is treated as using rules and therefore not fingerprinted.
+ */
+@UtilityClass
+public class ConfigurationFingerprint {
+
+    private static final Logger logger = GMLogger.getLogger(ConfigurationFingerprint.class);
+
+    private static final AtomicBoolean warned = new AtomicBoolean();
+
+    /**
+     * Calculates the fingerprint of the configuration.
+     *
+     * @param project the project owning the configuration
+     * @param configuration the configuration to examine
+     * @return the fingerprint or null if the configuration uses rules (e.g. dependency substitution or
+     *         dependency locking) whose effect can't be captured and therefore must always be resolved.
+     */
+    public static String of(Project project, Configuration configuration) {
+        final ResolutionStrategy strategy = configuration.getResolutionStrategy();
+
+        if (usesRules(strategy) || usesDependencyLocking(configuration)) {
+            return null;
+        }
+
+        final StringBuilder result = new StringBuilder();
+
+        result.append("transitive=").append(configuration.isTransitive()).append('\n');
+        result.append("attributes=").append(attributes(configuration.getAttributes())).append('\n');
+        result.append("conflict=").append(((ResolutionStrategyInternal) strategy).getConflictResolution()).append('\n');
+        for (String forced : sorted(strategy.getForcedModules(), ConfigurationFingerprint::selector)) {
+            result.append("force=").append(forced).append('\n');
+        }
+        // Repository order is significant so these are not sorted.
+        for (ArtifactRepository repository : project.getRepositories()) {
+            result.append("repository=").append(repository(repository)).append('\n');
+        }
+        for (String exclude : sorted(configuration.getExcludeRules(), ConfigurationFingerprint::exclude)) {
+            result.append("exclude=").append(exclude).append('\n');
+        }
+        for (String dependency : sorted(configuration.getAllDependencies(), ConfigurationFingerprint::dependency)) {
+            result.append("dependency=").append(dependency).append('\n');
+        }
+        for (String constraint : sorted(configuration.getAllDependencyConstraints(),
+                ConfigurationFingerprint::constraint)) {
+            result.append("constraint=").append(constraint).append('\n');
+        }
+        if (configuration.getAllDependencies().stream().anyMatch(d -> d instanceof ProjectDependency)) {
+            result.append("owner=").append(project.getPath()).append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Whether dependency substitution rules (including those registered through {@code eachDependency}) or
+     * component selection rules have been registered on the resolution strategy.
+     * <p>
+     * The substitution rules of the configuration are composed into a single action, which is the no-op action when
+     * there are none. Substitutions registered for the whole build (e.g. by included builds) are not examined as
+     * they apply equally to every configuration.
+     *
+     * @param strategy the resolution strategy to examine
+     * @return true if rules are registered, or if it can't be determined
+     */
+    public static boolean usesRules(ResolutionStrategy strategy) {
+        try {
+            final DependencySubstitutionRules substitutions = (DependencySubstitutionRules) strategy
+                    .getDependencySubstitution();
+            final ComponentSelectionRulesInternal selections = (ComponentSelectionRulesInternal) strategy
+                    .getComponentSelection();
+
+            return substitutions.getRuleAction() != Actions.<DependencySubstitution> doNothing()
+                    || !selections.getRules().isEmpty();
+        } catch (ClassCastException | LinkageError e) {
+            warn(e);
+            return true;
+        }
+    }
+
+    /**
+     * Whether dependency locking has been activated for the configuration.
+     *
+     * @param configuration the configuration to examine
+     * @return true if locking is enabled, or if it can't be determined
+     */
+    public static boolean usesDependencyLocking(Configuration configuration) {
+        try {
+            return ((ResolutionStrategyInternal) configuration.getResolutionStrategy()).isDependencyLockingEnabled();
+        } catch (ClassCastException | LinkageError e) {
+            warn(e);
+            return true;
+        }
+    }
+
+    private static String dependency(Dependency dependency) {
+        final StringBuilder result = new StringBuilder();
+
+        result.append(dependency.getClass().getName()).append(':')
+                .append(dependency.getGroup()).append(':')
+                .append(dependency.getName()).append(':')
+                .append(dependency.getVersion());
+
+        if (dependency instanceof ProjectDependency) {
+            result.append(":project=").append(((ProjectDependency) dependency).getDependencyProject().getPath());
+        }
+        if (dependency instanceof ModuleDependency) {
+            final ModuleDependency moduleDependency = (ModuleDependency) dependency;
+
+            result.append(":transitive=").append(moduleDependency.isTransitive())
+                    .append(":target=").append(moduleDependency.getTargetConfiguration())
+                    .append(":attributes=").append(attributes(moduleDependency.getAttributes()))
+                    .append(":excludes=").append(sorted(moduleDependency.getExcludeRules(),
+                            ConfigurationFingerprint::exclude))
+                    .append(":artifacts=").append(sorted(moduleDependency.getArtifacts(),
+                            ConfigurationFingerprint::artifact));
+        }
+        return result.toString();
+    }
+
+    private static String constraint(DependencyConstraint constraint) {
+        return constraint.getClass().getName() + ':' + constraint.getGroup() + ':' + constraint.getName() + ':'
+                + constraint.getVersionConstraint();
+    }
+
+    private static String selector(ModuleVersionSelector selector) {
+        return selector.getGroup() + ':' + selector.getName() + ':' + selector.getVersion();
+    }
+
+    private static String exclude(ExcludeRule rule) {
+        return rule.getGroup() + ':' + rule.getModule();
+    }
+
+    private static String artifact(DependencyArtifact artifact) {
+        return artifact.getName() + ':' + artifact.getType() + ':' + artifact.getExtension() + ':'
+                + artifact.getClassifier();
+    }
+
+    private static String repository(ArtifactRepository repository) {
+        if (repository instanceof MavenArtifactRepository) {
+            return repository.getName() + '@' + ((MavenArtifactRepository) repository).getUrl();
+        } else if (repository instanceof IvyArtifactRepository) {
+            return repository.getName() + '@' + ((IvyArtifactRepository) repository).getUrl();
+        }
+        return repository.getName() + '@' + repository.getClass().getName();
+    }
+
+    private static Set<String> attributes(AttributeContainer container) {
+        final Set<String> result = new TreeSet<>();
+        for (Attribute<?> attribute : container.keySet()) {
+            result.add(attribute.getName() + '=' + container.getAttribute(attribute));
+        }
+        return result;
+    }
+
+    private static <T> Set<String> sorted(Collection<T> items, Function<T, String> mapper) {
+        final Set<String> result = new TreeSet<>();
+        items.forEach(i -> result.add(mapper.apply(i)));
+        return result;
+    }
+
+    private static void warn(Throwable e) {
+        if (!warned.getAndSet(true)) {
+            logger.warn("Unable to examine the resolution strategy ({}) ; every configuration will be resolved",
+                    e.toString());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.gradle.api.Project;
+import org.jboss.gm.common.utils.ProjectUtils;
+
+/**
+ * The <code>dependencyExclusion</code> properties compiled into a {@link DependencyOverrideIndex} for the properties
+ * that apply to every module and one for each module that has its own properties. Checking whether a dependency is
+ * excluded within a module is therefore a couple of hash lookups rather than a test of every property.
+ */
+public final class DependencyExclusionIndex {
+
+    private final DependencyOverrideIndex allModules;
+
+    private final Map<ProjectRef, DependencyOverrideIndex> modules = new HashMap<>();
+
+    private final boolean empty;
+
+    /**
+     * Compiles the properties.
+     *
+     * @param exclusions the parsed properties
+     */
+    public DependencyExclusionIndex(Collection<DependencyPropertyParser.Result> exclusions) {
+        final List<ProjectRef> all = new ArrayList<>();
+        final Map<ProjectRef, List<ProjectRef>> byModule = new HashMap<>();
+
+        for (DependencyPropertyParser.Result exclusion : exclusions) {
+            if (exclusion.getModule() == null) {
+                all.add(exclusion.getDependency());
+            } else {
+                byModule.computeIfAbsent(asKey(exclusion.getModule()), k -> new ArrayList<>())
+                        .add(exclusion.getDependency());
+            }
+        }
+        allModules = all.isEmpty() ? null : new DependencyOverrideIndex(all);
+        byModule.forEach((module, dependencies) -> modules.put(module, new DependencyOverrideIndex(dependencies)));
+        empty = exclusions.isEmpty();
+    }
+
+    /**
+     * @return whether there are no exclusions
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Whether the dependency is excluded from alignment within the module.
+     *
+     * @param module the module, or null if it has no GA, in which case only exclusions for every module apply
+     * @param dependency the dependency
+     * @return whether the dependency is excluded
+     */
+    public boolean isExcluded(ProjectRef module, ProjectRef dependency) {
+        if (allModules != null && allModules.match(dependency) != null) {
+            return true;
+        }
+        final DependencyOverrideIndex index = module == null ? null : modules.get(asKey(module));
+
+        return index != null && index.match(dependency) != null;
+    }
+
+    /**
+     * Returns the GA the properties use to refer to the project.
+     *
+     * @param project the project
+     * @return the GA, or null if the project has no group, name or version
+     */
+    public static ProjectRef getModule(Project project) {
+        final String group = ProjectUtils.getRealGroupId(project);
+
+        if (StringUtils.isEmpty(project.getVersion().toString()) || StringUtils.isEmpty(group)
+                || StringUtils.isEmpty(project.getName())) {
+            return null;
+        }
+        return new SimpleProjectRef(group, project.getName());
+    }
+
+    private static ProjectRef asKey(ProjectRef ref) {
+        return new SimpleProjectRef(ref.getGroupId(), ref.getArtifactId());
+    }
+}
@@ -0,0 +1,78 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+
+/**
+ * The distinct dependency GAVs of all modules, which form the alignment request, along with a reverse index from each
+ * GAV back to the modules that use it. A GAV used by many modules is therefore only sent, and its result only
+ * processed, once.
+ *
+ * @param <M> the type of the modules
+ */
+public final class DependencyIndex<M> {
+
+    private final Map<ProjectVersionRef, List<Usage<M>>> usages;
+
+    private int total;
+
+    /**
+     * Creates the index.
+     *
+     * @param dependencies the dependencies of each module, keyed by the original dependency
+     * @param sorted whether the GAVs are sorted, so that identical builds send identical requests, or kept in the order
+     *            they are first used
+     */
+    public DependencyIndex(Map<M, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies, boolean sorted) {
+        usages = sorted ? new TreeMap<>(Comparator.comparing(ProjectVersionRef::toString)) : new LinkedHashMap<>();
+
+        dependencies.forEach((module, moduleDependencies) -> moduleDependencies.forEach((original, resolved) -> {
+            usages.computeIfAbsent(resolved, k -> new ArrayList<>()).add(new Usage<>(module, original));
+            total++;
+        }));
+    }
+
+    /**
+     * @return the distinct GAVs
+     */
+    public List<ProjectVersionRef> getDependencies() {
+        return new ArrayList<>(usages.keySet());
+    }
+
+    /**
+     * @return the number of dependencies across all modules, including duplicates
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Passes each module using the GAV, along with the original dependency it was resolved from, to the consumer.
+     *
+     * @param gav the GAV
+     * @param consumer the consumer
+     */
+    public void forEachUsage(ProjectVersionRef gav, BiConsumer<M, RelaxedProjectVersionRef> consumer) {
+        usages.getOrDefault(gav, Collections.emptyList()).forEach(u -> consumer.accept(u.module, u.original));
+    }
+
+    private static final class Usage<M> {
+        private final M module;
+
+        private final RelaxedProjectVersionRef original;
+
+        private Usage(M module, RelaxedProjectVersionRef original) {
+            this.module = module;
+            this.original = original;
+        }
+    }
+}
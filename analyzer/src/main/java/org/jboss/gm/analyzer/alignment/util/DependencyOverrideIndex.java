@@ -0,0 +1,208 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+
+/**
+ * Dependency patterns, such as the keys of the <code>dependencyOverride</code> map, compiled for fast matching. A
+ * dependency matches exactly the same key as if each key was tested in turn using
+ * {@link ProjectRef#matches(ProjectRef)} ; that is the first key that either equals the dependency or whose group and
+ * artifact ids, with each <code>*</code> replaced by <code>.*</code>, match it as regular expressions. As with that
+ * method a <code>.</code> matches any character.
+ * <p>
+ * To avoid testing every key in turn, keys without a wildcard are placed in a hash map as are those whose only
+ * wildcard is the artifact id. The first of those equal to the dependency bounds the keys that still have to be
+ * tested. As a <code>.</code> matches exactly one character, keys whose only metacharacter is <code>.</code> can only
+ * match a dependency with group and artifact ids of the same length. Those keys are therefore grouped by the lengths
+ * of their ids (or of their group id, where the artifact id is a wildcard) so that only the keys of the matching
+ * group are tested, without a regular expression. Only the remaining keys, with wildcards or other regular expression
+ * constructs, are tested for every dependency.
+ */
+public final class DependencyOverrideIndex {
+
+    private static final String WILDCARD = "*";
+
+    private final Map<ProjectRef, Key> exact = new HashMap<>();
+
+    private final Map<String, Key> groups = new HashMap<>();
+
+    /**
+     * Keys whose group and artifact ids only contain literals and <code>.</code>, keyed by the lengths of both.
+     */
+    private final Map<Long, List<Key>> plainKeys = new HashMap<>();
+
+    /**
+     * Keys whose group id only contains literals and <code>.</code> and whose artifact id is a wildcard, keyed by the
+     * length of the group id.
+     */
+    private final Map<Integer, List<Key>> plainGroupKeys = new HashMap<>();
+
+    private final List<Key> patternKeys = new ArrayList<>();
+
+    /**
+     * Compiles the keys of the map.
+     *
+     * @param overrideMap the overrides, in order of precedence
+     */
+    public DependencyOverrideIndex(Map<ProjectRef, String> overrideMap) {
+        this(overrideMap.keySet());
+    }
+
+    /**
+     * Compiles the patterns.
+     *
+     * @param keys the patterns, in order of precedence
+     */
+    public DependencyOverrideIndex(Collection<ProjectRef> keys) {
+        int position = 0;
+
+        for (ProjectRef ref : keys) {
+            final Key key = new Key(ref, position++);
+
+            if (isLiteral(ref.getGroupId()) && isLiteral(ref.getArtifactId())) {
+                exact.putIfAbsent(new SimpleProjectRef(ref.getGroupId(), ref.getArtifactId()), key);
+            } else if (isLiteral(ref.getGroupId()) && WILDCARD.equals(ref.getArtifactId())) {
+                groups.putIfAbsent(ref.getGroupId(), key);
+            }
+
+            if (key.groupId.isPlain() && key.artifactId.isPlain()) {
+                plainKeys.computeIfAbsent(lengths(ref.getGroupId(), ref.getArtifactId()), l -> new ArrayList<>())
+                        .add(key);
+            } else if (key.groupId.isPlain() && WILDCARD.equals(ref.getArtifactId())) {
+                plainGroupKeys.computeIfAbsent(ref.getGroupId().length(), l -> new ArrayList<>()).add(key);
+            } else {
+                patternKeys.add(key);
+            }
+        }
+    }
+
+    /**
+     * Finds the override matching the dependency.
+     *
+     * @param dependency the dependency
+     * @return the first key that matches the dependency, or null if there is none
+     */
+    public ProjectRef match(ProjectRef dependency) {
+        Key bound = exact.get(new SimpleProjectRef(dependency.getGroupId(), dependency.getArtifactId()));
+
+        final Key group = groups.get(dependency.getGroupId());
+        if (group != null && (bound == null || group.position < bound.position)) {
+            bound = group;
+        }
+        // Any key before the bound may still match, e.g. through a wildcard or a '.'.
+        bound = firstMatch(plainKeys.get(lengths(dependency.getGroupId(), dependency.getArtifactId())), dependency,
+                bound);
+        bound = firstMatch(plainGroupKeys.get(dependency.getGroupId().length()), dependency, bound);
+        bound = firstMatch(patternKeys, dependency, bound);
+
+        return bound == null ? null : bound.ref;
+    }
+
+    /**
+     * Tests the keys, which are in order of precedence, that precede the bound.
+     *
+     * @return the first of the keys that matches the dependency, or otherwise the bound
+     */
+    private static Key firstMatch(List<Key> keys, ProjectRef dependency, Key bound) {
+        if (keys != null) {
+            for (Key key : keys) {
+                if (bound != null && key.position >= bound.position) {
+                    break;
+                }
+                if (key.matches(dependency)) {
+                    return key;
+                }
+            }
+        }
+        return bound;
+    }
+
+    private static long lengths(String groupId, String artifactId) {
+        return ((long) groupId.length() << Integer.SIZE) | artifactId.length();
+    }
+
+    private static boolean isLiteral(String value) {
+        return !value.contains(WILDCARD);
+    }
+
+    private static final class Key {
+        private final ProjectRef ref;
+
+        private final int position;
+
+        private final Part groupId;
+
+        private final Part artifactId;
+
+        private Key(ProjectRef ref, int position) {
+            this.ref = ref;
+            this.position = position;
+            this.groupId = new Part(ref.getGroupId());
+            this.artifactId = new Part(ref.getArtifactId());
+        }
+
+        /**
+         * Equivalent to {@link ProjectRef#matches(ProjectRef)} without compiling the patterns on each call.
+         */
+        private boolean matches(ProjectRef dependency) {
+            if (ref.getGroupId().equals(dependency.getGroupId())
+                    && ref.getArtifactId().equals(dependency.getArtifactId())) {
+                return true;
+            }
+            return groupId.matches(dependency.getGroupId()) && artifactId.matches(dependency.getArtifactId());
+        }
+    }
+
+    /**
+     * A group or artifact id of a key, which is a regular expression once each <code>*</code> is replaced.
+     */
+    private static final class Part {
+        private static final Pattern PLAIN = Pattern.compile("[\\w.-]*");
+
+        private final String value;
+
+        private final Pattern pattern;
+
+        private Part(String value) {
+            this.value = value;
+            this.pattern = PLAIN.matcher(value).matches() ? null : Pattern.compile(value.replaceAll("\\*", ".*"));
+        }
+
+        /**
+         * Whether the only metacharacter is <code>.</code>, so that a candidate must be of the same length to match.
+         */
+        private boolean isPlain() {
+            return pattern == null;
+        }
+
+        private boolean matches(String candidate) {
+            if (pattern != null) {
+                return pattern.matcher(candidate).matches();
+            }
+            // Only '.' is special, matching any single character other than a line terminator.
+            if (value.length() != candidate.length()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                final char d = candidate.charAt(i);
+
+                if (c == '.' ? isLineTerminator(d) : c != d) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+    }
+}
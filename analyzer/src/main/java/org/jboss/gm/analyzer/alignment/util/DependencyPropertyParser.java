@@ -36,7 +36,9 @@ public final class DependencyPropertyParser {
                             + "' is not a properly formatted key since it is not properly split by '@' and '*");
         }
 
-        return new ResultImpl(SimpleProjectRef.parse(artifactAndModule[0]), createMatchesModulePredicate(artifactAndModule[1]));
+        return new ResultImpl(SimpleProjectRef.parse(artifactAndModule[0]),
+                "*".equals(artifactAndModule[1]) ? null : SimpleProjectRef.parse(artifactAndModule[1]),
+                createMatchesModulePredicate(artifactAndModule[1]));
     }
 
     private static Predicate<ProjectRef> createMatchesModulePredicate(String moduleValue) {
@@ -52,15 +54,22 @@ public final class DependencyPropertyParser {
 
         ProjectRef getDependency();
 
+        /**
+         * @return the module the property applies to, or null if it applies to all modules
+         */
+        ProjectRef getModule();
+
         boolean matchesModule(ProjectRef projectRef);
     }
 
     private static class ResultImpl implements Result {
         private final ProjectRef dependency;
+        private final ProjectRef module;
         private final Predicate<ProjectRef> matchesModulePredicate;
 
-        ResultImpl(ProjectRef dependency, Predicate<ProjectRef> matchesModulePredicate) {
+        ResultImpl(ProjectRef dependency, ProjectRef module, Predicate<ProjectRef> matchesModulePredicate) {
             this.dependency = dependency;
+            this.module = module;
             this.matchesModulePredicate = matchesModulePredicate;
         }
 
@@ -69,6 +78,11 @@ public final class DependencyPropertyParser {
             return dependency;
         }
 
+        @Override
+        public ProjectRef getModule() {
+            return module;
+        }
+
         @Override
         public boolean matchesModule(ProjectRef projectRef) {
             return matchesModulePredicate.test(projectRef);
@@ -0,0 +1,151 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+
+/**
+ * An in memory least recently used cache of the versions returned by the REST endpoint. There is a single instance
+ * per daemon so that results are shared by all the builds it runs. GAVs without a version are cached too.
+ * <p>
+ * Only dependency lookups are cached. A project version lookup returns the next free version suffix, which changes
+ * as soon as a build of that version is made ; reusing an earlier result could hand out a suffix that is already
+ * taken.
+ * <p>
+ * The cache is cleared whenever a build uses a different endpoint, REST mode, brew pull setting, headers or
+ * dependency source to the previous one. Hit and miss counts are kept for the lifetime of the daemon.
+ */
+public final class TranslationMemoryCache {
+
+    private static final TranslationMemoryCache INSTANCE = new TranslationMemoryCache();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private String scope;
+
+    private long ttl;
+
+    private int maxSize;
+
+    private long hits;
+
+    private long misses;
+
+    // Package private for testing
+    TranslationMemoryCache() {
+    }
+
+    /**
+     * Returns the cache of the daemon, configured for the current build. If the REST configuration differs from the
+     * one of the previous build the cache is cleared first.
+     *
+     * @param configuration the current configuration
+     * @return the cache, or null if it is disabled
+     */
+    public static TranslationMemoryCache getInstance(Configuration configuration) {
+        if (configuration.restMemoryCacheTtl() <= 0) {
+            return null;
+        }
+        INSTANCE.configure(configuration.daEndpoint() + '|' + configuration.restMode() + '|'
+                + configuration.restBrewPullActive() + '|' + configuration.restHeaders() + '|'
+                + configuration.dependencyConfiguration(),
+                TimeUnit.MINUTES.toMillis(configuration.restMemoryCacheTtl()), configuration.restMemoryCacheMaxSize());
+        return INSTANCE;
+    }
+
+    // Package private for testing
+    synchronized void configure(String scope, long ttl, int maxSize) {
+        if (!scope.equals(this.scope)) {
+            entries.clear();
+            this.scope = scope;
+        }
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Looks up the GAVs within the cache.
+     *
+     * @param gavs the GAVs to look up
+     * @param found populated with the version of each GAV found in the cache that has one
+     * @return the GAVs not found in the cache
+     */
+    public synchronized List<ProjectVersionRef> lookup(List<ProjectVersionRef> gavs,
+            Map<ProjectVersionRef, String> found) {
+        final long now = System.currentTimeMillis();
+        final List<ProjectVersionRef> result = new ArrayList<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final String key = gav.toString();
+            final Entry entry = entries.get(key);
+
+            if (entry == null || now - entry.created >= ttl) {
+                entries.remove(key);
+                result.add(gav);
+            } else if (entry.version != null) {
+                found.put(gav, entry.version);
+            }
+        }
+        hits += gavs.size() - result.size();
+        misses += result.size();
+        return result;
+    }
+
+    /**
+     * Determines whether the GAV is held within the cache, without affecting the statistics.
+     *
+     * @param gav the GAV to check
+     * @return true if the GAV is held within the cache and has not expired
+     */
+    public synchronized boolean contains(ProjectVersionRef gav) {
+        final Entry entry = entries.get(gav.toString());
+
+        return entry != null && System.currentTimeMillis() - entry.created < ttl;
+    }
+
+    /**
+     * Stores the results of looking up the GAVs.
+     *
+     * @param gavs the GAVs that were looked up
+     * @param results the versions found for the GAVs
+     */
+    public synchronized void store(List<ProjectVersionRef> gavs, Map<ProjectVersionRef, String> results) {
+        final long now = System.currentTimeMillis();
+
+        for (ProjectVersionRef gav : gavs) {
+            entries.put(gav.toString(), new Entry(now, results.get(gav)));
+        }
+    }
+
+    /**
+     * @return the hit rate statistics since the daemon started
+     */
+    public synchronized String getStatistics() {
+        final long total = hits + misses;
+
+        return String.format(Locale.ROOT, "%d hits, %d misses (%.1f%% hit rate), %d entries", hits, misses,
+                total == 0 ? 0.0 : hits * 100.0 / total, entries.size());
+    }
+
+    private static final class Entry {
+        private final long created;
+
+        private final String version;
+
+        private Entry(long created, String version) {
+            this.created = created;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.Project;
+import org.jboss.gm.common.Configuration;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOM;
+
+public class AlignmentServiceFactoryTest {
+
+    private final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+    @Test
+    public void builtInProvidersShouldBeDiscovered() {
+        assertThat(AlignmentServiceFactory.load(AlignmentServiceProvider.class))
+                .hasAtLeastOneElementOfType(DAAlignmentServiceProvider.class)
+                .hasAtLeastOneElementOfType(OfflineAlignmentServiceProvider.class);
+        assertThat(AlignmentServiceFactory.load(AlignmentCustomizerProvider.class))
+                .hasOnlyElementsOfType(DefaultCustomizerProvider.class).hasSize(1);
+    }
+
+    @Test
+    public void supportingProviderWithLowestOrderShouldBeUsed() {
+        final AlignmentServiceProvider bom = new TestProvider(0, true);
+        final AlignmentServiceProvider unsupported = new TestProvider(-10, false);
+        final AlignmentServiceProvider da = new DAAlignmentServiceProvider();
+
+        assertThat(AlignmentServiceFactory.getProvider(configuration, Arrays.asList(da, unsupported, bom)))
+                .isSameAs(bom);
+        assertThat(AlignmentServiceFactory.getProvider(configuration, Arrays.asList(unsupported, da))).isSameAs(da);
+    }
+
+    @Test
+    public void offlineProviderShouldBeUsedIfConfigured() {
+        final Iterable<AlignmentServiceProvider> providers = AlignmentServiceFactory
+                .load(AlignmentServiceProvider.class);
+
+        assertThat(AlignmentServiceFactory.getProvider(configuration, providers))
+                .isInstanceOf(DAAlignmentServiceProvider.class);
+
+        final Configuration offline = ConfigFactory.create(Configuration.class,
+                Collections.singletonMap("restOfflineFile", "alignment.csv"));
+        assertThat(AlignmentServiceFactory.getProvider(offline, providers))
+                .isInstanceOf(OfflineAlignmentServiceProvider.class);
+    }
+
+    @Test
+    public void missingProviderShouldBeReported() {
+        assertThatThrownBy(() -> AlignmentServiceFactory.getProvider(configuration,
+                Collections.singletonList(new TestProvider(0, false))))
+                        .isInstanceOf(ManipulationUncheckedException.class)
+                        .hasMessageContaining(configuration.dependencyConfiguration().toString());
+    }
+
+    private static final class TestProvider implements AlignmentServiceProvider {
+        private final int order;
+
+        private final boolean supported;
+
+        private TestProvider(int order, boolean supported) {
+            this.order = order;
+            this.supported = supported;
+        }
+
+        @Override
+        public boolean supports(Configuration configuration) {
+            return supported && configuration.dependencyConfiguration() != BOM;
+        }
+
+        @Override
+        public AlignmentService create(Configuration configuration, Set<Project> projects) {
+            return request -> new AlignmentService.Response(Collections.emptyMap());
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+    }
+}
@@ -5,15 +5,15 @@ import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import org.aeonbits.owner.ConfigFactory;
 import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration.State;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.internal.AbstractTask;
 import org.gradle.api.internal.GradleInternal;
@@ -105,17 +105,79 @@ public class AlignmentTaskEmptyVersionTest {
         Configuration config = ConfigFactory.create(Configuration.class);
 
         // As getDependencies is private, use reflection to modify the access control.
-        Method m = at.getClass().getDeclaredMethod("getDependencies", Project.class, Configuration.class, Set.class);
+        Method m = at.getClass().getDeclaredMethod("getDependencies", Project.class, Configuration.class, Map.class);
         m.setAccessible(true);
         @SuppressWarnings("unchecked")
         Map<Dependency, ProjectVersionRef> result = (Map<Dependency, ProjectVersionRef>) m.invoke(at,
-                new Object[] { p, config, new HashSet<ProjectVersionRef>() });
+                new Object[] { p, config, new HashMap<ProjectRef, String>() });
         Collection<ProjectVersionRef> allDependencies = result.values();
 
         assertEquals(1, allDependencies.size());
         assertEquals("org.apache.commons:commons-configuration2:2.4", allDependencies.toArray()[0].toString());
     }
 
+    @Test
+    public void testIdenticalConfigurationsShareResolution() throws Exception {
+        final File simpleProjectRoot = tempDir.newFolder("simple-project");
+
+        Project p = ProjectBuilder.builder().withProjectDir(simpleProjectRoot).build();
+
+        p.getRepositories().mavenCentral();
+        p.getConfigurations().create("first");
+        p.getConfigurations().create("second");
+        p.getDependencies().add("first", "org.apache.commons:commons-configuration2:2.4");
+        p.getDependencies().add("second", "org.apache.commons:commons-configuration2:2.4");
+
+        AlignmentTask at = new AlignmentTask();
+        Configuration config = ConfigFactory.create(Configuration.class);
+
+        Method m = at.getClass().getDeclaredMethod("getDependencies", Project.class, Configuration.class, Map.class);
+        m.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<Dependency, ProjectVersionRef> result = (Map<Dependency, ProjectVersionRef>) m.invoke(at,
+                new Object[] { p, config, new HashMap<ProjectRef, String>() });
+
+        assertEquals(1, result.size());
+        assertEquals("org.apache.commons:commons-configuration2:2.4", result.values().toArray()[0].toString());
+        // Only the first configuration is resolved ; the second reuses its graph.
+        assertEquals(State.RESOLVED, p.getConfigurations().getByName("first").getState());
+        assertEquals(State.UNRESOLVED, p.getConfigurations().getByName("second").getState());
+    }
+
+    @Test
+    public void testSiblingProjectsShareResolution() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project first = ProjectBuilder.builder().withName("first").withParent(root).build();
+        final Project second = ProjectBuilder.builder().withName("second").withParent(root).build();
+
+        for (Project p : new Project[] { first, second }) {
+            p.getPluginManager().apply("java");
+            p.getRepositories().mavenCentral();
+            p.getDependencies().add("implementation", "org.apache.commons:commons-configuration2:2.4");
+        }
+
+        AlignmentTask at = new AlignmentTask();
+        Configuration config = ConfigFactory.create(Configuration.class);
+
+        Method m = at.getClass().getDeclaredMethod("getDependencies", Project.class, Configuration.class, Map.class);
+        m.setAccessible(true);
+        for (Project p : new Project[] { first, second }) {
+            @SuppressWarnings("unchecked")
+            Map<Dependency, ProjectVersionRef> result = (Map<Dependency, ProjectVersionRef>) m.invoke(at,
+                    new Object[] { p, config, new HashMap<ProjectRef, String>() });
+
+            assertEquals(1, result.size());
+            assertEquals("org.apache.commons:commons-configuration2:2.4", result.values().toArray()[0].toString());
+        }
+        // The common configurations of the second project reuse the graphs resolved for the first project.
+        assertEquals(State.RESOLVED, first.getConfigurations().getByName("compileClasspath").getState());
+        assertEquals(State.RESOLVED, first.getConfigurations().getByName("runtimeClasspath").getState());
+        for (String name : new String[] { "compileClasspath", "runtimeClasspath", "testCompileClasspath",
+                "testRuntimeClasspath" }) {
+            assertEquals(State.UNRESOLVED, second.getConfigurations().getByName(name).getState());
+        }
+    }
+
     @Test
     public void verifyPluginLog() {
         new AlignmentPlugin();
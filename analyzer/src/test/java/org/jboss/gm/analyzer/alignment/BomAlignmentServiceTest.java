@@ -0,0 +1,98 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOM;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.BOMREST;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.RESTBOM;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BomAlignmentServiceTest {
+
+    private static final ProjectVersionRef PROJECT = withGAV("org.acme", "dummy", "1.0.0");
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    private final Map<ProjectRef, String> versions = new HashMap<>();
+
+    private final AlignmentService.Request request = new AlignmentService.Request(Collections.singletonList(PROJECT),
+            Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO));
+
+    public BomAlignmentServiceTest() {
+        versions.put(HIBERNATE.asProjectRef(), "5.3.7.Final-redhat-00002");
+        // Already aligned, so it is managed but needs no change.
+        versions.put(MOCKITO.asProjectRef(), "2.27.0");
+    }
+
+    @Test
+    public void bomShouldOnlyUseManagedVersions() throws ManipulationException {
+        final AlignmentService.Response response = new BomAlignmentService(versions, BOM, null).align(request);
+
+        assertThat(response.getTranslationMap()).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00002"));
+        assertThat(response.getNewProjectVersion()).isNull();
+    }
+
+    @Test
+    public void bomRestShouldOnlySendUnmanagedGavs() throws ManipulationException {
+        final AlignmentService delegate = delegate();
+        final AlignmentService.Response response = new BomAlignmentService(versions, BOMREST, delegate)
+                .align(request);
+        final ArgumentCaptor<AlignmentService.Request> sent = ArgumentCaptor.forClass(AlignmentService.Request.class);
+
+        verify(delegate).align(sent.capture());
+        assertThat(sent.getValue().getDependencies()).containsExactly(UNDERTOW);
+        assertThat(sent.getValue().getProject()).containsExactly(PROJECT);
+        assertThat(response.getTranslationMap()).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00002"),
+                entry(UNDERTOW, "2.0.15.Final-redhat-00001"));
+        assertThat(response.getNewProjectVersion()).isEqualTo("1.0.0.redhat-00001");
+    }
+
+    @Test
+    public void restBomShouldPreferRestVersions() throws ManipulationException {
+        final AlignmentService delegate = delegate();
+        final AlignmentService.Response response = new BomAlignmentService(versions, RESTBOM, delegate)
+                .align(request);
+
+        verify(delegate).align(request);
+        assertThat(response.getTranslationMap()).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"),
+                entry(UNDERTOW, "2.0.15.Final-redhat-00001"));
+    }
+
+    private static AlignmentService delegate() throws ManipulationException {
+        final AlignmentService result = mock(AlignmentService.class);
+
+        when(result.align(any())).thenAnswer(invocation -> {
+            final AlignmentService.Request sent = invocation.getArgument(0);
+            final Map<ProjectVersionRef, String> translations = new HashMap<>();
+
+            if (sent.getDependencies().contains(HIBERNATE)) {
+                translations.put(HIBERNATE, "5.3.7.Final-redhat-00001");
+            }
+            translations.put(UNDERTOW, "2.0.15.Final-redhat-00001");
+
+            final AlignmentService.Response response = new AlignmentService.Response(translations);
+            response.setNewProjectVersion("1.0.0.redhat-00001");
+            return response;
+        });
+        return result;
+    }
+}
@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -14,18 +17,23 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.io.rest.DefaultTranslator;
 import org.commonjava.maven.ext.io.rest.RestException;
 import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.utils.RESTUtils;
 import org.junit.Before;
+import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
 
@@ -36,8 +44,12 @@ public class DAAlignmentServiceWiremockTest {
     @Rule
     public final TestRule restoreSystemProperties = new RestoreSystemProperties();
 
+    // Shared by the tests as the REST client, and so its connection pool, is shared too.
+    @ClassRule
+    public static WireMockRule wireMockRule = new WireMockRule(PORT);
+
     @Rule
-    public WireMockRule wireMockRule = new WireMockRule(PORT);
+    public TemporaryFolder tempDir = new TemporaryFolder();
 
     @Before
     public void setup() throws IOException, URISyntaxException {
@@ -78,6 +90,125 @@ public class DAAlignmentServiceWiremockTest {
         });
     }
 
+    @Test
+    public void alignmentUsesPersistentCache() throws RestException {
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restCacheTtl", "10");
+        wireMockRule.resetRequests();
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final AlignmentService.Request request = new AlignmentService.Request(Collections.emptyList(),
+                Stream.of(hibernateGav, mockitoGav).collect(Collectors.toList()));
+
+        for (int i = 0; i < 2; i++) {
+            final AlignmentService.Response response = new DAAlignmentService(configuration, tempDir.getRoot(), null)
+                    .align(request);
+
+            assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+            assertThat(response.getAlignedVersionOfGav(mockitoGav)).isNull();
+        }
+        verify(1, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+    }
+
+    @Test
+    public void memoryCacheDoesNotCacheProjectVersions() throws RestException {
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMemoryCacheTtl", "10");
+        wireMockRule.resetRequests();
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef projectGav = withGAV("org.acme", "dummy", "1.0.0");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final AlignmentService.Request request = new AlignmentService.Request(Collections.singletonList(projectGav),
+                Collections.singletonList(hibernateGav));
+
+        for (int i = 0; i < 2; i++) {
+            final AlignmentService.Response response = new DAAlignmentService(configuration).align(request);
+
+            assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        }
+        // The dependency is served from memory by the second build but the project version is always looked up.
+        verify(1, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+        verify(2, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_LATEST)));
+    }
+
+    @Test
+    public void alignmentSendsChunksConcurrently() throws RestException {
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMaxSize", "1");
+        System.setProperty("restConcurrency", "4");
+        wireMockRule.resetRequests();
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef projectGav = withGAV("org.acme", "dummy", "1.0.0");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final AlignmentService.Response response = new DAAlignmentService(configuration)
+                .align(new AlignmentService.Request(Collections.singletonList(projectGav),
+                        Stream.of(hibernateGav, undertowGav, mockitoGav, hibernateGav).collect(Collectors.toList())));
+
+        assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(undertowGav)).isEqualTo("2.0.15.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(mockitoGav)).isNull();
+        verify(3, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+        verify(1, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_LATEST)));
+    }
+
+    @Test
+    public void alignmentWaitsForPipelinedLookups() throws RestException {
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        wireMockRule.resetRequests();
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final DALookupPipeline pipeline = new DALookupPipeline(RESTUtils.getTranslator(configuration), null, null, null,
+                Collections.emptyList(), 2, 2);
+
+        // Only a complete batch is sent while scanning ; the remainder is sent by the alignment.
+        pipeline.submit(new AlignmentService.Request(Collections.emptyList(),
+                Arrays.asList(hibernateGav, undertowGav)));
+        pipeline.submit(new AlignmentService.Request(Collections.emptyList(),
+                Arrays.asList(undertowGav, mockitoGav)));
+
+        final AlignmentService.Response response = new DAAlignmentService(configuration, null, pipeline)
+                .align(new AlignmentService.Request(Collections.emptyList(),
+                        Arrays.asList(hibernateGav, undertowGav, mockitoGav)));
+
+        assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(undertowGav)).isEqualTo("2.0.15.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(mockitoGav)).isNull();
+        verify(2, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+    }
+
+    @Test
+    public void pipelineDoesNotSendExcludedGavs() {
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        wireMockRule.resetRequests();
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final AlignmentService.RequestCustomizer exclusion = new DependencyExclusionCustomizer(
+                p -> !"org.mockito".equals(p.getGroupId()));
+        final DALookupPipeline pipeline = new DALookupPipeline(RESTUtils.getTranslator(configuration), null, null, null,
+                Collections.singletonList(exclusion), 2, 2);
+
+        pipeline.submit(new AlignmentService.Request(Collections.emptyList(),
+                Arrays.asList(hibernateGav, mockitoGav, undertowGav)));
+
+        final Map<ProjectVersionRef, String> found = new HashMap<>();
+        assertThat(pipeline.collect(Arrays.asList(hibernateGav, undertowGav, mockitoGav), found))
+                .containsExactly(mockitoGav);
+        assertThat(found).containsOnlyKeys(hibernateGav, undertowGav);
+        verify(1, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+    }
+
     private String readSampleDAResponse() throws URISyntaxException, IOException {
         return FileUtils.readFileToString(
                 Paths.get(DAAlignmentServiceWiremockTest.class.getClassLoader().getResource("sample-da-response.json")
@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -13,7 +15,9 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Project;
 import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.gm.analyzer.alignment.util.DependencyIndex;
 import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -105,4 +109,37 @@ public class DependencyExclusionCustomizerFromConfigurationAndModuleTest {
                     "wiremock-jre8");
         });
     }
+
+    @Test
+    public void ensureExclusionOnlyRemovesDependenciesExcludedByEveryUsingModule() throws IOException {
+        final Project test = projects.iterator().next();
+        final Project other = ProjectBuilder.builder().withName("other").withProjectDir(tempDir.newFolder("other"))
+                .build();
+        other.setVersion("1.0.0");
+        other.setGroup("org.acme");
+        projects.add(other);
+
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final ProjectVersionRef mockitoJunitGav = withGAV("org.mockito", "mockito-junit-jupiter", "2.27.0");
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new LinkedHashMap<>();
+        dependencies.put(test, new LinkedHashMap<>());
+        dependencies.put(other, new LinkedHashMap<>());
+        dependencies.get(test).put(RelaxedProjectVersionRef.parse(mockitoGav.toString()), mockitoGav);
+        dependencies.get(test).put(RelaxedProjectVersionRef.parse(mockitoJunitGav.toString()), mockitoJunitGav);
+        dependencies.get(other).put(RelaxedProjectVersionRef.parse(mockitoJunitGav.toString()), mockitoJunitGav);
+
+        System.setProperty("dependencyExclusion.org.mockito:*@org.acme:test", "");
+
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+        final DependencyIndex<Project> dependencyIndex = new DependencyIndex<>(dependencies, false);
+
+        final AlignmentService.Request customizedReq = DependencyExclusionCustomizer
+                .fromConfigurationForModule(configuration, projects)
+                .customize(new AlignmentService.Request(Collections.emptyList(), dependencyIndex.getDependencies(),
+                        dependencyIndex));
+
+        // mockito-junit-jupiter is still used, without an exclusion, by the other module.
+        assertThat(customizedReq.getDependencies()).containsExactly(mockitoJunitGav);
+        assertThat(customizedReq.getDependencyIndex()).isSameAs(dependencyIndex);
+    }
 }
@@ -0,0 +1,139 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResolvedGraphTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static class RecordingVisitor implements ResolvedGraph.Visitor {
+        private final List<String> firstLevel = new ArrayList<>();
+        private final List<String> transitive = new ArrayList<>();
+        private final List<String> unresolved = new ArrayList<>();
+        private final List<String> projects = new ArrayList<>();
+
+        @Override
+        public void visitModule(ModuleVersionIdentifier module, boolean firstLevelModule) {
+            (firstLevelModule ? firstLevel : transitive).add(module.getName());
+        }
+
+        @Override
+        public void visitUnresolved(UnresolvedDependencyResult dependency) {
+            unresolved.add(((ModuleComponentSelector) dependency.getAttempted()).getModule());
+        }
+
+        @Override
+        public void visitProject(String path) {
+            projects.add(path);
+        }
+    }
+
+    @Test
+    public void verifyProjectAndUnresolvedComponents() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project child = ProjectBuilder.builder().withName("child").withParent(root).build();
+        final Project other = ProjectBuilder.builder().withName("other").withParent(root).build();
+        child.getPluginManager().apply("java");
+        other.getPluginManager().apply("java");
+
+        // No repositories are defined so no external module can be resolved.
+        other.getDependencies().add("implementation", "org.apache.commons:commons-lang3:3.8");
+        child.getDependencies().add("implementation", other);
+        child.getDependencies().add("implementation", "junit:junit:4.12");
+
+        final RecordingVisitor visitor = new RecordingVisitor();
+        ResolvedGraph.walk(root(child), visitor);
+
+        assertThat(visitor.projects).containsExactly(":other");
+        assertThat(visitor.firstLevel).isEmpty();
+        assertThat(visitor.transitive).isEmpty();
+        assertThat(visitor.unresolved).containsExactlyInAnyOrder("junit", "commons-lang3");
+    }
+
+    @Test
+    public void verifyModulesAreVisitedOnce() throws Exception {
+        final File repository = tempDir.newFolder("repository");
+        writePom(repository, "a", dependency("b") + dependency("c"));
+        writePom(repository, "b", dependency("c"));
+        writePom(repository, "c", "");
+
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        root.getPluginManager().apply("java");
+        root.getRepositories().maven(m -> m.setUrl(repository.toURI()));
+        root.getDependencies().add("implementation", "org.foo:a:1.0");
+        root.getDependencies().add("implementation", "org.foo:c:1.0");
+
+        final RecordingVisitor visitor = new RecordingVisitor();
+        ResolvedGraph.walk(root(root), visitor);
+
+        assertThat(visitor.unresolved).isEmpty();
+        assertThat(visitor.firstLevel).containsExactly("a", "c");
+        assertThat(visitor.transitive).containsExactly("b");
+
+        final RecordingVisitor firstLevelOnly = new RecordingVisitor();
+        ResolvedGraph.collect(root(root), false).accept(firstLevelOnly);
+
+        assertThat(firstLevelOnly.firstLevel).containsExactly("a", "c");
+        assertThat(firstLevelOnly.transitive).isEmpty();
+
+        final RecordingVisitor replayed = new RecordingVisitor();
+        ResolvedGraph.collect(root(root), true).accept(replayed);
+
+        assertThat(replayed.firstLevel).containsExactly("a", "c");
+        assertThat(replayed.transitive).containsExactly("b");
+    }
+
+    @Test
+    public void verifyTransitiveRequestedVersionsAreFound() throws Exception {
+        final File repository = tempDir.newFolder("repository");
+        writePom(repository, "a", dependency("b"));
+        writePom(repository, "b", "<dependency><groupId>org.foo</groupId><artifactId>d</artifactId>"
+                + "<version>2.0-SNAPSHOT</version></dependency>");
+        writePom(repository, "c", "");
+
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        root.getPluginManager().apply("java");
+        root.getRepositories().maven(m -> m.setUrl(repository.toURI()));
+        root.getDependencies().add("implementation", "org.foo:a:1.0");
+        root.getDependencies().add("implementation", "org.foo:c:1.0");
+
+        assertThat(ResolvedGraph.findRequestedVersion(root(root), v -> v.endsWith("-SNAPSHOT")))
+                .isEqualTo("2.0-SNAPSHOT");
+        assertThat(ResolvedGraph.findRequestedVersion(root(root), v -> v.startsWith("3."))).isNull();
+    }
+
+    private ResolvedComponentResult root(Project project) {
+        return project.getConfigurations().getByName("runtimeClasspath").getIncoming().getResolutionResult().getRoot();
+    }
+
+    private String dependency(String artifactId) {
+        return "<dependency><groupId>org.foo</groupId><artifactId>" + artifactId
+                + "</artifactId><version>1.0</version></dependency>";
+    }
+
+    private void writePom(File repository, String artifactId, String dependencies) throws IOException {
+        final File pom = new File(repository, "org/foo/" + artifactId + "/1.0/" + artifactId + "-1.0.pom");
+        FileUtils.writeStringToFile(pom, "<project><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>org.foo</groupId><artifactId>" + artifactId + "</artifactId><version>1.0</version>"
+                + "<packaging>pom</packaging><dependencies>" + dependencies + "</dependencies></project>",
+                Charset.defaultCharset());
+    }
+}
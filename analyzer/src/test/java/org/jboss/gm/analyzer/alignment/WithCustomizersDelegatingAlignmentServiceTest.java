@@ -13,7 +13,7 @@ public class WithCustomizersDelegatingAlignmentServiceTest {
 
     @Test
     public void nullCustomizersShouldBeAllowed() throws ManipulationException {
-        final DAAlignmentService delegate = mock(DAAlignmentService.class);
+        final AlignmentService delegate = mock(AlignmentService.class);
         final AlignmentService.Request request = mock(AlignmentService.Request.class);
         final AlignmentService.Response response = mock(AlignmentService.Response.class);
 
@@ -26,7 +26,7 @@ public class WithCustomizersDelegatingAlignmentServiceTest {
 
     @Test
     public void requestCustomizersShouldBeInvokedInOrder() throws ManipulationException {
-        final DAAlignmentService delegate = mock(DAAlignmentService.class);
+        final AlignmentService delegate = mock(AlignmentService.class);
         final AlignmentService.RequestCustomizer reqCustomizer1 = mock(AlignmentService.RequestCustomizer.class);
         final AlignmentService.RequestCustomizer reqCustomizer2 = mock(AlignmentService.RequestCustomizer.class);
         final AlignmentService.Request originalReq = mock(AlignmentService.Request.class);
@@ -48,7 +48,7 @@ public class WithCustomizersDelegatingAlignmentServiceTest {
 
     @Test
     public void responseCustomizersShouldBeInvokedInOrder() throws ManipulationException {
-        final DAAlignmentService delegate = mock(DAAlignmentService.class);
+        final AlignmentService delegate = mock(AlignmentService.class);
         final AlignmentService.Request request = mock(AlignmentService.Request.class);
         final AlignmentService.ResponseCustomizer respCustomizer1 = mock(AlignmentService.ResponseCustomizer.class);
         final AlignmentService.ResponseCustomizer respCustomizer2 = mock(AlignmentService.ResponseCustomizer.class);
@@ -0,0 +1,151 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.aeonbits.owner.ConfigCache;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.gm.common.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.APPLY_GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START;
+
+public class AnalysisStateIOTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Rule
+    public final RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
+    @Test
+    public void normaliseShouldRemoveInjectedLines() {
+        final List<String> original = Arrays.asList("plugins {", "    id 'java'", "}");
+
+        assertThat(AnalysisStateIO.normalise(Arrays.asList("", INJECT_GME_START, "", "plugins {", "    id 'java'", "}",
+                "", INJECT_GME_END, ""))).isEqualTo(original);
+        assertThat(AnalysisStateIO.normalise(Arrays.asList(APPLY_GME_REPOS, "", "plugins {", "    id 'java'", "}")))
+                .isEqualTo(original);
+        assertThat(AnalysisStateIO.normaliseSettings(Arrays.asList("include 'a'", "", "rootProject.name='foo'")))
+                .containsExactly("include 'a'");
+    }
+
+    @Test
+    public void normaliseShouldKeepOtherLines() {
+        final List<String> original = Arrays.asList("", "plugins {", "", "    id 'java'", "}", "",
+                "rootProject.name='foo'");
+
+        assertThat(AnalysisStateIO.normalise(original)).isEqualTo(original);
+        assertThat(AnalysisStateIO.normalise(Arrays.asList("", "", INJECT_GME_START, "", "", "", "plugins {", "",
+                "    id 'java'", "}", "", "rootProject.name='foo'"))).isEqualTo(original);
+        assertThat(AnalysisStateIO.normaliseSettings(Arrays.asList("include 'a'", "", "rootProject.name='foo'",
+                "include 'b'"))).containsExactly("include 'a'", "", "rootProject.name='foo'", "include 'b'");
+    }
+
+    @Test
+    public void inputsShouldBeUnaffectedByAlignment() throws IOException {
+        final File rootDir = tempDir.newFolder("root");
+        final File buildFile = new File(rootDir, "build.gradle");
+        final File settingsFile = new File(rootDir, "settings.gradle");
+        final File locksDir = new File(rootDir, "gradle/dependency-locks");
+        final File lockfile = new File(locksDir, "compileClasspath.lockfile");
+
+        FileUtils.writeLines(buildFile, Arrays.asList("plugins {", "    id 'java'", "}"));
+        FileUtils.writeLines(settingsFile, Collections.singletonList("include 'a'"));
+        FileUtils.writeLines(lockfile, Collections.singletonList("org.foo:bar:1.0"));
+
+        final Project project = ProjectBuilder.builder().withProjectDir(rootDir).build();
+        final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+        final Map<String, String> inputs = AnalysisStateIO.inputsOf(AnalysisStateIO.filesOf(project), configuration);
+
+        assertThat(inputs).containsKeys("build.gradle", "settings.gradle",
+                "gradle/dependency-locks/compileClasspath.lockfile", "property:restMode");
+
+        // Apply the same modifications as the alignment.
+        FileUtils.writeLines(buildFile, Arrays.asList("", INJECT_GME_START, "", "plugins {", "    id 'java'", "}",
+                "", INJECT_GME_END));
+        FileUtils.writeStringToFile(settingsFile, System.lineSeparator() + "rootProject.name='root'"
+                + System.lineSeparator(), Charset.defaultCharset(), true);
+        assertThat(lockfile.renameTo(new File(locksDir, "compileClasspath.lockfile.unused"))).isTrue();
+
+        assertThat(AnalysisStateIO.inputsOf(AnalysisStateIO.filesOf(project), configuration)).isEqualTo(inputs);
+
+        FileUtils.writeLines(buildFile, Collections.singletonList("apply plugin: 'java'"), true);
+        assertThat(AnalysisStateIO.inputsOf(AnalysisStateIO.filesOf(project), configuration)).isNotEqualTo(inputs);
+    }
+
+    @Test
+    public void inputsShouldIncludeBuildSrc() throws IOException {
+        final File rootDir = tempDir.newFolder("root");
+        final File source = new File(rootDir, "buildSrc/src/main/groovy/build/Plugin.groovy");
+
+        FileUtils.writeLines(new File(rootDir, "build.gradle"), Collections.singletonList("apply plugin: 'java'"));
+        FileUtils.writeStringToFile(source, "class Plugin {}", Charset.defaultCharset());
+        FileUtils.writeStringToFile(new File(rootDir, "buildSrc/build/classes/Plugin.class"), "",
+                Charset.defaultCharset());
+
+        final Project project = ProjectBuilder.builder().withProjectDir(rootDir).build();
+        final Map<String, String> files = AnalysisStateIO.filesOf(project);
+
+        assertThat(files).containsKey("buildSrc/src/main/groovy/build/Plugin.groovy")
+                .doesNotContainKey("buildSrc/build/classes/Plugin.class");
+
+        FileUtils.writeStringToFile(source, "class Plugin { }", Charset.defaultCharset());
+        assertThat(AnalysisStateIO.filesOf(project)).isNotEqualTo(files);
+    }
+
+    @Test
+    public void scanInputsShouldOnlyIncludeRelatedProjects() throws IOException {
+        final File rootDir = tempDir.newFolder("root");
+
+        FileUtils.writeLines(new File(rootDir, "build.gradle"), Collections.singletonList("subprojects {}"));
+        FileUtils.writeLines(new File(rootDir, "settings.gradle"), Collections.singletonList("include 'a', 'b'"));
+        FileUtils.writeLines(new File(rootDir, "a/build.gradle"), Collections.singletonList("apply plugin: 'java'"));
+        FileUtils.writeLines(new File(rootDir, "b/build.gradle"), Collections.singletonList("apply plugin: 'java'"));
+
+        final Project root = ProjectBuilder.builder().withProjectDir(rootDir).build();
+        final Project a = ProjectBuilder.builder().withName("a").withProjectDir(new File(rootDir, "a"))
+                .withParent(root).build();
+        ProjectBuilder.builder().withName("b").withProjectDir(new File(rootDir, "b")).withParent(root).build();
+
+        assertThat(AnalysisStateIO.scanFilesOf(a)).containsKeys("build.gradle", "settings.gradle", "a/build.gradle")
+                .doesNotContainKey("b/build.gradle");
+        assertThat(AnalysisStateIO.filesOf(root)).containsKeys("a/build.gradle", "b/build.gradle");
+    }
+
+    @Test
+    public void stateShouldBeCurrentUntilAnOutputChanges() throws IOException {
+        final File rootDir = tempDir.newFolder("root");
+        final File stateFile = new File(rootDir, "build/state.properties");
+        final File output = new File(rootDir, "manipulation.json");
+        final Map<String, String> inputs = Collections.singletonMap("build.gradle", "abc");
+
+        assertThat(AnalysisStateIO.isCurrent(stateFile, rootDir, inputs, Collections.singletonList(output))).isFalse();
+
+        FileUtils.writeStringToFile(output, "{}", Charset.defaultCharset());
+        AnalysisStateIO.write(stateFile, rootDir, inputs, Collections.singletonList(output));
+
+        assertThat(AnalysisStateIO.isCurrent(stateFile, rootDir, inputs, Collections.singletonList(output))).isTrue();
+        assertThat(AnalysisStateIO.isCurrent(stateFile, rootDir, Collections.singletonMap("build.gradle", "def"),
+                Collections.singletonList(output))).isFalse();
+
+        FileUtils.writeStringToFile(output, "{ }", Charset.defaultCharset());
+        assertThat(AnalysisStateIO.isCurrent(stateFile, rootDir, inputs, Collections.singletonList(output))).isFalse();
+
+        assertThat(output.delete()).isTrue();
+        assertThat(AnalysisStateIO.isCurrent(stateFile, rootDir, inputs, Collections.singletonList(output))).isFalse();
+    }
+}
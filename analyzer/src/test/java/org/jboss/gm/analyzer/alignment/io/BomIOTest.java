@@ -0,0 +1,90 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+public class BomIOTest {
+
+    private static final ProjectRef HIBERNATE = new SimpleProjectRef("org.hibernate", "hibernate-core");
+
+    private static final ProjectRef UNDERTOW = new SimpleProjectRef("io.undertow", "undertow-core");
+
+    private static final ProjectRef MOCKITO = new SimpleProjectRef("org.mockito", "mockito-core");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void managedVersionsShouldBeInheritedInterpolatedAndImported() throws IOException {
+        final File repository = tempDir.newFolder("repository");
+
+        writePom(repository, "org.acme", "parent", "1", "",
+                "<properties><hibernate.version>5.3.7.Final-redhat-00001</hibernate.version></properties>",
+                dependency("org.mockito", "mockito-core", "2.27.0-redhat-00002", ""));
+        writePom(repository, "org.acme", "bom", "1", "<parent><groupId>org.acme</groupId>"
+                + "<artifactId>parent</artifactId><version>1</version></parent>", "",
+                dependency("org.hibernate", "hibernate-core", "${hibernate.version}", "")
+                        + dependency("org.acme", "other-bom", "${project.version}",
+                                "<type>pom</type><scope>import</scope>")
+                        + dependency("org.acme", "unresolved", "${missing.version}", ""));
+        writePom(repository, "org.acme", "other-bom", "1", "", "",
+                dependency("io.undertow", "undertow-core", "2.0.15.Final-redhat-00001", "")
+                        + dependency("org.hibernate", "hibernate-core", "5.3.7.Final-redhat-00009", ""));
+
+        final Map<ProjectRef, String> result = BomIO.read(Collections.singletonList(withGAV("org.acme", "bom", "1")),
+                Arrays.asList(tempDir.newFolder("empty"), repository));
+
+        // The BOM takes precedence over its imports.
+        assertThat(result).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"),
+                entry(UNDERTOW, "2.0.15.Final-redhat-00001"), entry(MOCKITO, "2.27.0-redhat-00002"));
+    }
+
+    @Test
+    public void earlierBomsShouldTakePrecedence() throws IOException {
+        final File repository = tempDir.newFolder("repository");
+
+        writePom(repository, "org.acme", "first", "1", "", "",
+                dependency("org.hibernate", "hibernate-core", "5.3.7.Final-redhat-00001", ""));
+        writePom(repository, "org.acme", "second", "1", "", "",
+                dependency("org.hibernate", "hibernate-core", "5.3.7.Final-redhat-00002", ""));
+
+        assertThat(BomIO.read(Arrays.asList(withGAV("org.acme", "first", "1"), withGAV("org.acme", "second", "1")),
+                Collections.singletonList(repository))).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"));
+        assertThatThrownBy(() -> BomIO.read(Collections.singletonList(withGAV("org.acme", "third", "1")),
+                Collections.singletonList(repository))).isInstanceOf(ManipulationUncheckedException.class)
+                        .hasMessageContaining("Unable to find BOM org.acme:third:1");
+    }
+
+    private static String dependency(String groupId, String artifactId, String version, String extra) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><version>"
+                + version + "</version>" + extra + "</dependency>";
+    }
+
+    private static void writePom(File repository, String groupId, String artifactId, String version, String parent,
+            String properties, String dependencies) throws IOException {
+        final File pom = new File(repository, groupId.replace('.', '/') + '/' + artifactId + '/' + version + '/'
+                + artifactId + '-' + version + ".pom");
+
+        FileUtils.writeStringToFile(pom, "<project><modelVersion>4.0.0</modelVersion>" + parent + "<groupId>"
+                + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><version>" + version
+                + "</version><packaging>pom</packaging>" + properties + "<dependencyManagement><dependencies>"
+                + dependencies + "</dependencies></dependencyManagement></project>", StandardCharsets.UTF_8);
+    }
+}
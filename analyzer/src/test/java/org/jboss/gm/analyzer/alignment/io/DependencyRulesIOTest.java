@@ -0,0 +1,112 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.gm.common.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class DependencyRulesIOTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+    @Before
+    public void before() {
+        DependencyRulesIO.clearCache();
+    }
+
+    @Test
+    public void rulesShouldBeReadInOrder() throws IOException {
+        final File rules = tempDir.newFile("rules.properties");
+
+        FileUtils.writeStringToFile(rules, "# Product overrides\n"
+                + "dependencyOverride.org.hibernate:hibernate-core@* = 5.3.7.Final-redhat-00001\n"
+                + "\n"
+                + "dependencyExclusion.org.mockito:*@org.acme:test\n"
+                + "dependencyOverride.com.fasterxml.jackson.core:*@*=2.9.5-redhat-00001\n"
+                + "dependencyOverride.org.hibernate:hibernate-core@*=5.3.7.Final-redhat-00009\n",
+                StandardCharsets.UTF_8);
+
+        final Map<String, String> result = DependencyRulesIO.read("rules.properties", tempDir.getRoot());
+
+        // A later duplicate replaces the value, but not the position, of the first.
+        assertThat(result).containsExactly(
+                entry("dependencyOverride.org.hibernate:hibernate-core@*", "5.3.7.Final-redhat-00009"),
+                entry("dependencyExclusion.org.mockito:*@org.acme:test", ""),
+                entry("dependencyOverride.com.fasterxml.jackson.core:*@*", "2.9.5-redhat-00001"));
+        assertThat(DependencyRulesIO.read(rules.toURI().toString(), null)).isSameAs(result);
+    }
+
+    @Test
+    public void changedContentShouldBeReadAgain() throws IOException {
+        final File rules = tempDir.newFile("rules.properties");
+
+        FileUtils.writeStringToFile(rules, "dependencyExclusion.org.mockito:*@*\n", StandardCharsets.UTF_8);
+        final Map<String, String> first = DependencyRulesIO.read(rules.getPath(), null);
+        FileUtils.writeStringToFile(rules, "dependencyExclusion.org.hibernate:*@*\n", StandardCharsets.UTF_8);
+
+        assertThat(first).containsOnlyKeys("dependencyExclusion.org.mockito:*@*");
+        assertThat(DependencyRulesIO.read(rules.getPath(), null))
+                .containsOnlyKeys("dependencyExclusion.org.hibernate:*@*");
+    }
+
+    @Test
+    public void invalidRulesShouldReportTheirLine() throws IOException {
+        final File rules = tempDir.newFile("rules.properties");
+
+        FileUtils.writeStringToFile(rules, "dependencyExclusion.org.mockito:*@*\ndependencyOverride.org.acme=1.0\n",
+                StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> DependencyRulesIO.read(rules.getPath(), null))
+                .isInstanceOf(InvalidUserDataException.class).hasMessageContaining("Line 2 of");
+
+        FileUtils.writeStringToFile(rules, "versionSuffix=redhat\n", StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> DependencyRulesIO.read(rules.getPath(), null))
+                .isInstanceOf(InvalidUserDataException.class).hasMessageContaining("Line 1 of");
+    }
+
+    @Test
+    public void urlShouldBeDownloadedOncePerBuild() throws IOException {
+        final Project project = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("project")).build();
+        final String url = "http://localhost:" + wireMockRule.port() + "/rules.properties";
+
+        wireMockRule.stubFor(get(urlEqualTo("/rules.properties"))
+                .willReturn(aResponse().withStatus(200).withBody("dependencyExclusion.org.mockito:*@*\n")));
+
+        final Configuration configuration = ConfigFactory.create(Configuration.class,
+                Collections.singletonMap("dependencyRulesFile", url));
+        final String hash = DependencyRulesIO.hash(url, project);
+
+        assertThat(DependencyRulesIO.getPropertiesByPrefix(configuration, Collections.singleton(project),
+                "dependencyExclusion.")).containsOnlyKeys("org.mockito:*@*");
+        assertThat(DependencyRulesIO.getPropertiesByPrefix(configuration, Collections.singleton(project),
+                "dependencyOverride.")).isEmpty();
+        assertThat(DependencyRulesIO.hash(url, project)).isEqualTo(hash);
+        wireMockRule.verify(1, getRequestedFor(urlEqualTo("/rules.properties")));
+    }
+}
@@ -4,10 +4,13 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -41,6 +44,19 @@ public class LockFileIOTest {
                         tuple("xnio-nio", "3.3.8.Final"));
     }
 
+    @Test
+    public void lockedVersionsShouldBeIndexedByModule() throws URISyntaxException, IOException {
+        copyToLockfilesRoot("compileClasspath.lockfile");
+        copyToLockfilesRoot("runtimeClasspath.lockfile");
+
+        final Map<ProjectRef, String> result = LockFileIO.lockedVersionsFromLockfiles(tempDir.getRoot().toPath());
+        assertThat(result)
+                .hasSize(5)
+                .containsEntry(new SimpleProjectRef("org.apache.commons", "commons-lang3"), "3.8")
+                .containsEntry(new SimpleProjectRef("io.undertow", "undertow-core"), "2.0.21.Final");
+        assertThat(LockFileIO.lockedVersionsFromLockfiles(Paths.get("/lol"))).isEmpty();
+    }
+
     @Test
     public void renameNonExistingFileShouldNotResultInAnError() {
         LockFileIO.renameAllLockFiles(Paths.get("/lol"));
@@ -0,0 +1,90 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+public class OfflineAlignmentMappingTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private static final ProjectVersionRef ROOT = withGAV("org.acme.gradle", "root", "1.0.1");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void restResponsesShouldBeRead() throws URISyntaxException {
+        final OfflineAlignmentMapping dependencies = OfflineAlignmentMapping.read(resource("sample-da-response.json"));
+        final OfflineAlignmentMapping project = OfflineAlignmentMapping
+                .read(resource("sample-da-response-project.json"));
+
+        assertThat(dependencies.getVersions()).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"),
+                entry(UNDERTOW, "2.0.15.Final-redhat-00001"));
+        assertThat(dependencies.getProjectVersions()).isEmpty();
+        // The project has no existing version.
+        assertThat(project.getVersions()).isEmpty();
+        assertThat(project.getProjectVersions()).isEmpty();
+    }
+
+    @Test
+    public void directoryOfReportsAndCsvFilesShouldBeRead() throws Exception {
+        final File directory = tempDir.newFolder("offline");
+
+        FileUtils.writeStringToFile(new File(directory, "a/alignmentReport.json"), "{\n"
+                + "  \"executionRoot\" : { \"groupId\" : \"org.acme.gradle\", \"artifactId\" : \"root\",\n"
+                + "    \"version\" : \"1.0.1.redhat-00002\", \"originalGAV\" : \"org.acme.gradle:root:1.0.1\" },\n"
+                + "  \"modules\" : [ { \"gav\" : { \"groupId\" : \"org.acme.gradle\", \"artifactId\" : \"root\",\n"
+                + "      \"version\" : \"1.0.1.redhat-00002\", \"originalGAV\" : \"org.acme.gradle:root:1.0.1\" },\n"
+                + "    \"dependencies\" : { \"io.undertow:undertow-core:2.0.15.Final\" : {\n"
+                + "        \"groupId\" : \"io.undertow\", \"artifactId\" : \"undertow-core\",\n"
+                + "        \"version\" : \"2.0.15.Final-redhat-00001\" },\n"
+                + "      \"org.hibernate:hibernate-core:5.3.7.Final\" : { \"groupId\" : \"org.hibernate\",\n"
+                + "        \"artifactId\" : \"hibernate-core\", \"version\" : \"5.3.7.Final-redhat-00001\" } } } ]\n"
+                + "}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(directory, "b.csv"), "# Overrides the report\n\n"
+                + "org.hibernate:hibernate-core:5.3.7.Final,5.3.7.Final-redhat-00002\n"
+                + "org.mockito, mockito-core, 2.27.0, 2.27.0-redhat-00001\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(directory, "manipulation.json"), "{ \"name\" : \"root\" }",
+                StandardCharsets.UTF_8);
+
+        final OfflineAlignmentMapping mapping = OfflineAlignmentMapping.read(directory);
+
+        assertThat(mapping.getVersions()).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00002"),
+                entry(UNDERTOW, "2.0.15.Final-redhat-00001"),
+                entry(withGAV("org.mockito", "mockito-core", "2.27.0"), "2.27.0-redhat-00001"));
+        assertThat(mapping.getProjectVersions()).containsOnly(entry(ROOT, "1.0.1.redhat-00002"));
+    }
+
+    @Test
+    public void invalidFilesShouldBeReported() throws Exception {
+        final File csv = tempDir.newFile("invalid.csv");
+        final File json = tempDir.newFile("manipulation.json");
+
+        FileUtils.writeStringToFile(csv, "org.hibernate:hibernate-core:5.3.7.Final\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(json, "{ \"name\" : \"root\" }", StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> OfflineAlignmentMapping.read(csv)).isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("Invalid line");
+        assertThatThrownBy(() -> OfflineAlignmentMapping.read(json)).isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("Unrecognised format");
+    }
+
+    private static File resource(String name) throws URISyntaxException {
+        return new File(OfflineAlignmentMappingTest.class.getClassLoader().getResource(name).toURI());
+    }
+}
@@ -0,0 +1,136 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+public class PersistentTranslationCacheTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void resultsShouldBeSharedWithLaterBuilds() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, UNDERTOW);
+        final Map<ProjectVersionRef, String> hits = new HashMap<>();
+
+        final PersistentTranslationCache first = new PersistentTranslationCache(file, TimeUnit.HOURS.toMillis(1), 10);
+        assertThat(first.lookup(gavs, hits)).containsExactly(HIBERNATE, UNDERTOW);
+        // Undertow has no aligned version ; that is cached too.
+        first.store(gavs, Collections.singletonMap(HIBERNATE, "5.3.7.Final-redhat-00001"));
+
+        final PersistentTranslationCache second = new PersistentTranslationCache(file, TimeUnit.HOURS.toMillis(1), 10);
+        assertThat(second.lookup(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO), hits)).containsExactly(MOCKITO);
+        assertThat(hits).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"));
+    }
+
+    @Test
+    public void expiredResultsShouldBeLookedUpAgain() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final List<ProjectVersionRef> gavs = Collections.singletonList(HIBERNATE);
+
+        new PersistentTranslationCache(file, 0, 10).store(gavs, Collections.singletonMap(HIBERNATE, "1-redhat-1"));
+
+        assertThat(new PersistentTranslationCache(file, 0, 10).lookup(gavs, new HashMap<>()))
+                .containsExactly(HIBERNATE);
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsShouldBeEvicted() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final long ttl = TimeUnit.HOURS.toMillis(1);
+
+        new PersistentTranslationCache(file, ttl, 2).store(Arrays.asList(HIBERNATE, UNDERTOW), Collections.emptyMap());
+        Thread.sleep(5);
+
+        // Using hibernate makes undertow the least recently used.
+        final PersistentTranslationCache cache = new PersistentTranslationCache(file, ttl, 2);
+        assertThat(cache.lookup(Collections.singletonList(HIBERNATE), new HashMap<>())).isEmpty();
+        Thread.sleep(5);
+        cache.store(Collections.singletonList(MOCKITO), Collections.emptyMap());
+
+        assertThat(new PersistentTranslationCache(file, ttl, 2).lookup(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO),
+                new HashMap<>())).containsExactly(UNDERTOW);
+    }
+
+    @Test
+    public void useShouldBeRecordedWhenEveryLookupHits() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final long ttl = TimeUnit.HOURS.toMillis(1);
+
+        new PersistentTranslationCache(file, ttl, 2).store(Arrays.asList(HIBERNATE, UNDERTOW), Collections.emptyMap());
+        Thread.sleep(5);
+
+        // Every lookup hits so there is nothing new to store ; only the use of hibernate is recorded.
+        final PersistentTranslationCache cache = new PersistentTranslationCache(file, ttl, 2);
+        assertThat(cache.lookup(Collections.singletonList(HIBERNATE), new HashMap<>())).isEmpty();
+        cache.store(Collections.emptyList(), Collections.emptyMap());
+        Thread.sleep(5);
+
+        new PersistentTranslationCache(file, ttl, 2).store(Collections.singletonList(MOCKITO), Collections.emptyMap());
+
+        assertThat(new PersistentTranslationCache(file, ttl, 2).lookup(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO),
+                new HashMap<>())).containsExactly(UNDERTOW);
+    }
+
+    @Test
+    public void fileShouldOnlyBeReadOnce() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final long ttl = TimeUnit.HOURS.toMillis(1);
+
+        final PersistentTranslationCache cache = new PersistentTranslationCache(file, ttl, 10);
+        assertThat(cache.lookup(Collections.singletonList(HIBERNATE), new HashMap<>())).containsExactly(HIBERNATE);
+
+        // Stored by another build after the first lookup ; not seen until this cache stores its own results.
+        new PersistentTranslationCache(file, ttl, 10).store(Collections.singletonList(UNDERTOW),
+                Collections.emptyMap());
+        assertThat(cache.lookup(Collections.singletonList(UNDERTOW), new HashMap<>())).containsExactly(UNDERTOW);
+
+        cache.store(Collections.singletonList(HIBERNATE), Collections.emptyMap());
+        assertThat(cache.lookup(Arrays.asList(HIBERNATE, UNDERTOW), new HashMap<>())).isEmpty();
+    }
+
+    @Test
+    public void lockHeldWithinJvmShouldBeIgnored() throws Exception {
+        final File file = new File(tempDir.getRoot(), "rest.properties");
+        final long ttl = TimeUnit.HOURS.toMillis(1);
+
+        new PersistentTranslationCache(file, ttl, 10).store(Collections.singletonList(HIBERNATE),
+                Collections.emptyMap());
+
+        // As held by the same cache loaded within another class loader.
+        try (FileChannel channel = FileChannel.open(new File(tempDir.getRoot(), "rest.properties.lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock ignored = channel.lock()) {
+            final PersistentTranslationCache cache = new PersistentTranslationCache(file, ttl, 10, 100);
+
+            assertThat(cache.lookup(Collections.singletonList(HIBERNATE), new HashMap<>())).containsExactly(HIBERNATE);
+            cache.store(Collections.singletonList(HIBERNATE), Collections.emptyMap());
+        }
+        assertThat(new PersistentTranslationCache(file, ttl, 10).lookup(Collections.singletonList(HIBERNATE),
+                new HashMap<>())).isEmpty();
+    }
+}
@@ -0,0 +1,77 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController.CHUNK_SIZE_INCREMENT;
+import static org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController.INITIAL_CHUNK_SIZE;
+import static org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController.MAX_CHUNK_SIZE;
+import static org.jboss.gm.analyzer.alignment.util.AdaptiveRequestController.MIN_CHUNK_SIZE;
+
+public class AdaptiveRequestControllerTest {
+
+    private static final long TARGET_LATENCY = 1000;
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void fastFullChunksShouldIncreaseChunkSizeAdditively() {
+        final AdaptiveRequestController controller = new AdaptiveRequestController(null, 4, TARGET_LATENCY);
+
+        controller.record(INITIAL_CHUNK_SIZE, 10, false);
+        assertThat(controller.getChunkSize()).isEqualTo(INITIAL_CHUNK_SIZE + CHUNK_SIZE_INCREMENT);
+
+        // A partial chunk says nothing about whether a larger one would be handled.
+        controller.record(1, 10, false);
+        assertThat(controller.getChunkSize()).isEqualTo(INITIAL_CHUNK_SIZE + CHUNK_SIZE_INCREMENT);
+
+        for (int i = 0; i < 100; i++) {
+            controller.record(MAX_CHUNK_SIZE, 10, false);
+        }
+        assertThat(controller.getChunkSize()).isEqualTo(MAX_CHUNK_SIZE);
+        assertThat(controller.getConcurrency()).isEqualTo(4);
+    }
+
+    @Test
+    public void slowOrFailedChunksShouldDecreaseMultiplicatively() {
+        final AdaptiveRequestController controller = new AdaptiveRequestController(null, 4, TARGET_LATENCY);
+
+        controller.record(INITIAL_CHUNK_SIZE, TARGET_LATENCY + 1, false);
+        assertThat(controller.getChunkSize()).isEqualTo(INITIAL_CHUNK_SIZE / 2);
+        assertThat(controller.getConcurrency()).isEqualTo(4);
+
+        controller.record(INITIAL_CHUNK_SIZE / 2, 10, true);
+        assertThat(controller.getChunkSize()).isEqualTo(INITIAL_CHUNK_SIZE / 4);
+        assertThat(controller.getConcurrency()).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            controller.record(MIN_CHUNK_SIZE, 10, true);
+        }
+        assertThat(controller.getChunkSize()).isEqualTo(MIN_CHUNK_SIZE);
+        assertThat(controller.getConcurrency()).isEqualTo(1);
+
+        controller.record(MIN_CHUNK_SIZE, 10, false);
+        assertThat(controller.getConcurrency()).isEqualTo(2);
+    }
+
+    @Test
+    public void learnedSettingsShouldBeKeptAcrossRuns() {
+        final File file = new File(tempDir.getRoot(), "gme/rest-tuning.properties");
+        final AdaptiveRequestController first = new AdaptiveRequestController(file, 4, TARGET_LATENCY);
+
+        first.record(INITIAL_CHUNK_SIZE, 10, true);
+        first.save();
+
+        final AdaptiveRequestController second = new AdaptiveRequestController(file, 4, TARGET_LATENCY);
+        assertThat(second.getChunkSize()).isEqualTo(INITIAL_CHUNK_SIZE / 2);
+        assertThat(second.getConcurrency()).isEqualTo(2);
+
+        // The configured concurrency remains the upper bound.
+        assertThat(new AdaptiveRequestController(file, 1, TARGET_LATENCY).getConcurrency()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,59 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.component.ProjectComponentSelector;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ComparatorTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private ModuleVersionIdentifier resolved(String group, String name, String version) {
+        final ModuleVersionIdentifier result = mock(ModuleVersionIdentifier.class);
+        when(result.getGroup()).thenReturn(group);
+        when(result.getName()).thenReturn(name);
+        when(result.getVersion()).thenReturn(version);
+        return result;
+    }
+
+    private ModuleComponentSelector attempted(String group, String name, String version) {
+        final ModuleComponentSelector result = mock(ModuleComponentSelector.class);
+        when(result.getGroup()).thenReturn(group);
+        when(result.getModule()).thenReturn(name);
+        when(result.getVersion()).thenReturn(version);
+        return result;
+    }
+
+    @Test
+    public void verifyProjectDependencyMembership() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project child = ProjectBuilder.builder().withName("child").withParent(root).build();
+        child.setGroup("org.foo");
+        child.setVersion("1.0");
+
+        final ProjectDependency dependency = (ProjectDependency) root.getDependencies().create(child);
+        final Set<List<String>> gavs = Comparator.toGAVs(Collections.singleton(dependency));
+
+        assertThat(Comparator.contains(gavs, resolved("org.foo", "child", "1.0"))).isTrue();
+        assertThat(Comparator.contains(gavs, resolved("org.foo", "child", "1.1"))).isFalse();
+        assertThat(Comparator.contains(gavs, resolved("org.bar", "child", "1.0"))).isFalse();
+        assertThat(Comparator.contains(gavs, attempted("org.foo", "child", "1.0"))).isTrue();
+        assertThat(Comparator.contains(gavs, attempted("org.foo", "other", "1.0"))).isFalse();
+        assertThat(Comparator.contains(gavs, mock(ProjectComponentSelector.class))).isFalse();
+    }
+}
@@ -0,0 +1,42 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationFilterTest {
+
+    @Test
+    public void verifyEmptyFilterAcceptsAll() {
+        final ConfigurationFilter filter = new ConfigurationFilter(new String[0], null);
+
+        assertThat(filter.accept("compileClasspath")).isTrue();
+        assertThat(filter.accept("checkstyle")).isTrue();
+    }
+
+    @Test
+    public void verifyGlobs() {
+        final ConfigurationFilter filter = new ConfigurationFilter(new String[] { "*Classpath", "default" },
+                new String[] { "test*", "annotationProcessor" });
+
+        assertThat(filter.accept("compileClasspath")).isTrue();
+        assertThat(filter.accept("runtimeClasspath")).isTrue();
+        assertThat(filter.accept("default")).isTrue();
+        assertThat(filter.accept("testCompileClasspath")).isFalse();
+        assertThat(filter.accept("annotationProcessor")).isFalse();
+        assertThat(filter.accept("checkstyle")).isFalse();
+    }
+
+    @Test
+    public void verifyRegexAndLiterals() {
+        final ConfigurationFilter filter = new ConfigurationFilter(null,
+                new String[] { "regex:(checkstyle|spotbugs).*", "jacoco.agent" });
+
+        assertThat(filter.accept("checkstyle")).isFalse();
+        assertThat(filter.accept("spotbugsPlugins")).isFalse();
+        assertThat(filter.accept("jacoco.agent")).isFalse();
+        // '.' in a glob is a literal
+        assertThat(filter.accept("jacocoXagent")).isTrue();
+        assertThat(filter.accept("compileClasspath")).isTrue();
+    }
+}
@@ -0,0 +1,101 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationFingerprintTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Project createProject(Project root, String name) {
+        final Project project = ProjectBuilder.builder().withName(name).withParent(root).build();
+        project.getPluginManager().apply("java");
+        project.getRepositories().mavenCentral();
+        return project;
+    }
+
+    private static String fingerprint(Project project, String configuration) {
+        return ConfigurationFingerprint.of(project, project.getConfigurations().getByName(configuration));
+    }
+
+    @Test
+    public void verifySiblingProjectsShareFingerprint() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project first = createProject(root, "first");
+        final Project second = createProject(root, "second");
+
+        first.getDependencies().add("implementation", "org.apache.commons:commons-lang3:3.8");
+        second.getDependencies().add("implementation", "org.apache.commons:commons-lang3:3.8");
+
+        assertThat(fingerprint(first, "compileClasspath"))
+                .isNotNull()
+                .isEqualTo(fingerprint(second, "compileClasspath"));
+
+        second.getDependencies().add("implementation", "junit:junit:4.12");
+
+        assertThat(fingerprint(first, "compileClasspath")).isNotEqualTo(fingerprint(second, "compileClasspath"));
+    }
+
+    @Test
+    public void verifyProjectDependenciesAreNotSharedBetweenSiblings() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project first = createProject(root, "first");
+        final Project second = createProject(root, "second");
+        final Project common = createProject(root, "common");
+
+        for (Project project : new Project[] { first, second }) {
+            project.getDependencies().add("implementation",
+                    project.getDependencies().project(singletonMap("path", ":common")));
+        }
+
+        assertThat(fingerprint(first, "compileClasspath"))
+                .isNotNull()
+                .isNotEqualTo(fingerprint(second, "compileClasspath"));
+        assertThat(fingerprint(common, "compileClasspath")).doesNotContain("owner=");
+    }
+
+    @Test
+    public void verifyAttributesAreIncluded() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project project = createProject(root, "project");
+
+        project.getDependencies().add("implementation", "org.apache.commons:commons-lang3:3.8");
+
+        assertThat(fingerprint(project, "compileClasspath")).isNotEqualTo(fingerprint(project, "runtimeClasspath"));
+    }
+
+    @Test
+    public void verifySubstitutionRulesAreNotShared() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project project = createProject(root, "project");
+
+        project.getConfigurations().getByName("compileClasspath").getResolutionStrategy()
+                .eachDependency(d -> d.useVersion("1.0"));
+
+        assertThat(fingerprint(project, "compileClasspath")).isNull();
+        assertThat(fingerprint(project, "runtimeClasspath")).isNotNull();
+    }
+
+    @Test
+    public void verifySelectionRulesAndLockingAreNotShared() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project project = createProject(root, "project");
+
+        project.getConfigurations().getByName("compileClasspath").getResolutionStrategy()
+                .componentSelection(rules -> rules.all(selection -> {
+                }));
+        project.getConfigurations().getByName("runtimeClasspath").getResolutionStrategy()
+                .activateDependencyLocking();
+
+        assertThat(fingerprint(project, "compileClasspath")).isNull();
+        assertThat(fingerprint(project, "runtimeClasspath")).isNull();
+        assertThat(fingerprint(project, "testCompileClasspath")).isNotNull();
+    }
+}
@@ -0,0 +1,50 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DependencyExclusionIndexTest {
+
+    private static final ProjectRef CORE = ref("org.acme:core");
+
+    private static final ProjectRef WEB = ref("org.acme:web");
+
+    @Test
+    public void exclusionsShouldOnlyApplyToTheirModule() {
+        final DependencyExclusionIndex index = new DependencyExclusionIndex(Arrays.asList(
+                DependencyPropertyParser.parse("org.hibernate:*@*"),
+                DependencyPropertyParser.parse("org.mockito:mockito-core@org.acme:core"),
+                DependencyPropertyParser.parse("io.undertow:*@org.acme:web")));
+
+        assertThat(index.isEmpty()).isFalse();
+        assertThat(index.isExcluded(CORE, ref("org.hibernate:hibernate-core"))).isTrue();
+        assertThat(index.isExcluded(WEB, ref("org.hibernate:hibernate-envers"))).isTrue();
+        assertThat(index.isExcluded(null, ref("org.hibernate:hibernate-core"))).isTrue();
+
+        assertThat(index.isExcluded(CORE, ref("org.mockito:mockito-core"))).isTrue();
+        assertThat(index.isExcluded(WEB, ref("org.mockito:mockito-core"))).isFalse();
+        assertThat(index.isExcluded(null, ref("org.mockito:mockito-core"))).isFalse();
+
+        assertThat(index.isExcluded(WEB, ref("io.undertow:undertow-core"))).isTrue();
+        assertThat(index.isExcluded(CORE, ref("io.undertow:undertow-core"))).isFalse();
+        assertThat(index.isExcluded(CORE, ref("com.fasterxml.jackson.core:jackson-core"))).isFalse();
+    }
+
+    @Test
+    public void noExclusionsShouldExcludeNothing() {
+        final DependencyExclusionIndex index = new DependencyExclusionIndex(Collections.emptyList());
+
+        assertThat(index.isEmpty()).isTrue();
+        assertThat(index.isExcluded(CORE, ref("org.hibernate:hibernate-core"))).isFalse();
+    }
+
+    private static ProjectRef ref(String ga) {
+        return SimpleProjectRef.parse(ga);
+    }
+}
@@ -0,0 +1,54 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+public class DependencyIndexTest {
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private final Map<String, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new LinkedHashMap<>();
+
+    public DependencyIndexTest() {
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> a = new LinkedHashMap<>();
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> b = new LinkedHashMap<>();
+
+        a.put(RelaxedProjectVersionRef.parse("org.hibernate:hibernate-core:5.3.7.Final"), HIBERNATE);
+        a.put(RelaxedProjectVersionRef.parse("io.undertow:undertow-core:2.0.15.Final"), UNDERTOW);
+        b.put(RelaxedProjectVersionRef.parse("org.hibernate:hibernate-core:5.+"), HIBERNATE);
+        dependencies.put("a", a);
+        dependencies.put("b", b);
+    }
+
+    @Test
+    public void requestShouldOnlyContainDistinctGavs() {
+        final DependencyIndex<String> index = new DependencyIndex<>(dependencies, false);
+
+        assertThat(index.getTotal()).isEqualTo(3);
+        assertThat(index.getDependencies()).containsExactly(HIBERNATE, UNDERTOW);
+        assertThat(new DependencyIndex<>(dependencies, true).getDependencies()).containsExactly(UNDERTOW, HIBERNATE);
+    }
+
+    @Test
+    public void gavsShouldBeIndexedBackToModules() {
+        final DependencyIndex<String> index = new DependencyIndex<>(dependencies, true);
+        final List<String> usages = new ArrayList<>();
+
+        index.forEachUsage(HIBERNATE, (module, original) -> usages.add(module + '=' + original));
+        index.forEachUsage(withGAV("org.mockito", "mockito-core", "2.27.0"), (module, original) -> usages.add(module));
+
+        assertThat(usages).containsExactly("a=org.hibernate:hibernate-core:5.3.7.Final",
+                "b=org.hibernate:hibernate-core:5.+");
+    }
+}
@@ -0,0 +1,76 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DependencyOverrideIndexTest {
+
+    private static final List<String> KEYS = Arrays.asList("org.hibernate:hibernate-core", "org.jboss.*:*",
+            "io.undertow:*", "org.hibernate:*", "*:undertow-servlet", "org.jboss.logging:jboss-logging",
+            "org.acme+:acme-(core|api)", "io.undertow:undertow-.ore", "*:*");
+
+    private static final List<String> DEPENDENCIES = Arrays.asList("org.hibernate:hibernate-core",
+            "org.hibernate:hibernate-envers", "io.undertow:undertow-core", "io.undertow:undertow-servlet",
+            "org.jboss.logging:jboss-logging", "org.jboss:jboss-parent", "com.fasterxml.jackson.core:jackson-core",
+            "orgxhibernate:hibernate-core", "orgxjboss.logging:jboss-logging", "org.acmee:acme-api",
+            "ioxundertow:undertow-core", "ioxundertow:undertow-cores");
+
+    @Test
+    public void firstMatchingKeyShouldBeUsed() {
+        final DependencyOverrideIndex index = new DependencyOverrideIndex(overrides(KEYS));
+
+        assertThat(index.match(ref("org.hibernate:hibernate-envers"))).isEqualTo(ref("org.hibernate:*"));
+        // The wildcard precedes the exact key.
+        assertThat(index.match(ref("org.jboss.logging:jboss-logging"))).isEqualTo(ref("org.jboss.*:*"));
+        assertThat(index.match(ref("io.undertow:undertow-servlet"))).isEqualTo(ref("io.undertow:*"));
+        assertThat(index.match(ref("com.fasterxml.jackson.core:jackson-core"))).isEqualTo(ref("*:*"));
+        // As with ProjectRef.matches the keys are regular expressions, so a '.' matches any character.
+        assertThat(index.match(ref("orgxjboss.logging:jboss-logging"))).isEqualTo(ref("org.jboss.*:*"));
+        assertThat(index.match(ref("orgxhibernate:hibernate-core"))).isEqualTo(ref("org.hibernate:hibernate-core"));
+        assertThat(index.match(ref("org.acmee:acme-api"))).isEqualTo(ref("org.acme+:acme-(core|api)"));
+        assertThat(new DependencyOverrideIndex(overrides(KEYS.subList(0, 3))).match(ref("org.acme:acme")))
+                .isNull();
+        // A '.' only matches a single character.
+        final DependencyOverrideIndex dots = new DependencyOverrideIndex(
+                overrides(Arrays.asList("io.undertow:undertow-.ore", "*:*")));
+        assertThat(dots.match(ref("ioxundertow:undertow-core"))).isEqualTo(ref("io.undertow:undertow-.ore"));
+        assertThat(dots.match(ref("ioxundertow:undertow-cores"))).isEqualTo(ref("*:*"));
+    }
+
+    @Test
+    public void matchShouldBeEquivalentToTestingEachKeyInTurn() {
+        // Every rotation of the keys, so that each kind of key takes precedence over the others.
+        for (int i = 0; i < KEYS.size(); i++) {
+            final Map<ProjectRef, String> overrides = new LinkedHashMap<>();
+            for (int j = 0; j < KEYS.size(); j++) {
+                overrides.put(ref(KEYS.get((i + j) % KEYS.size())), String.valueOf(j));
+            }
+            final DependencyOverrideIndex index = new DependencyOverrideIndex(overrides);
+
+            for (String dependency : DEPENDENCIES) {
+                final ProjectRef expected = overrides.keySet().stream().filter(k -> k.matches(ref(dependency)))
+                        .findFirst().orElse(null);
+
+                assertThat(index.match(ref(dependency))).as(dependency).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static Map<ProjectRef, String> overrides(List<String> keys) {
+        final Map<ProjectRef, String> result = new LinkedHashMap<>();
+        keys.forEach(k -> result.put(ref(k), "1.0"));
+        return result;
+    }
+
+    private static ProjectRef ref(String ga) {
+        return SimpleProjectRef.parse(ga);
+    }
+}
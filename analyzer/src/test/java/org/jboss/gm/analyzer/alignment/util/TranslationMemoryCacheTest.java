@@ -0,0 +1,81 @@
+package org.jboss.gm.analyzer.alignment.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+public class TranslationMemoryCacheTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    private static final long TTL = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void resultsShouldBeSharedBetweenBuilds() {
+        final TranslationMemoryCache cache = new TranslationMemoryCache();
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, UNDERTOW);
+        final Map<ProjectVersionRef, String> found = new HashMap<>();
+
+        cache.configure("scope", TTL, 10);
+        assertThat(cache.lookup(gavs, found)).containsExactly(HIBERNATE, UNDERTOW);
+        // Undertow has no aligned version ; that is cached too.
+        cache.store(gavs, Collections.singletonMap(HIBERNATE, "5.3.7.Final-redhat-00001"));
+
+        cache.configure("scope", TTL, 10);
+        assertThat(cache.lookup(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO), found))
+                .containsExactly(MOCKITO);
+        assertThat(found).containsOnly(entry(HIBERNATE, "5.3.7.Final-redhat-00001"));
+        assertThat(cache.getStatistics()).startsWith("2 hits, 3 misses (40.0% hit rate)");
+    }
+
+    @Test
+    public void configurationChangeShouldInvalidateResults() {
+        final TranslationMemoryCache cache = new TranslationMemoryCache();
+        final List<ProjectVersionRef> gavs = Collections.singletonList(HIBERNATE);
+
+        cache.configure("scope", TTL, 10);
+        cache.store(gavs, Collections.singletonMap(HIBERNATE, "5.3.7.Final-redhat-00001"));
+        cache.configure("other", TTL, 10);
+
+        assertThat(cache.lookup(gavs, new HashMap<>())).containsExactly(HIBERNATE);
+    }
+
+    @Test
+    public void expiredResultsShouldBeLookedUpAgain() {
+        final TranslationMemoryCache cache = new TranslationMemoryCache();
+        final List<ProjectVersionRef> gavs = Collections.singletonList(HIBERNATE);
+
+        cache.configure("scope", 0, 10);
+        cache.store(gavs, Collections.singletonMap(HIBERNATE, "5.3.7.Final-redhat-00001"));
+
+        assertThat(cache.lookup(gavs, new HashMap<>())).containsExactly(HIBERNATE);
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsShouldBeEvicted() {
+        final TranslationMemoryCache cache = new TranslationMemoryCache();
+
+        cache.configure("scope", TTL, 2);
+        cache.store(Arrays.asList(HIBERNATE, UNDERTOW), Collections.emptyMap());
+        // Using hibernate makes undertow the least recently used.
+        assertThat(cache.lookup(Collections.singletonList(HIBERNATE), new HashMap<>())).isEmpty();
+        cache.store(Collections.singletonList(MOCKITO), Collections.emptyMap());
+
+        assertThat(cache.lookup(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO), new HashMap<>()))
+                .containsExactly(UNDERTOW);
+    }
+}
@@ -2,11 +2,11 @@ package org.jboss.gm.common;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.aeonbits.owner.Accessible;
@@ -34,9 +34,10 @@ public interface Configuration extends Accessible, Reloadable {
 
     /**
      * Cache is indexed to object instance : Properties - while in production
-     * usage there should only be one instance, using this allows for easier testing.
+     * usage there should only be one instance, using this allows for easier testing. This may be
+     * accessed concurrently by alignment tasks running in parallel.
      */
-    Map<Configuration, Properties> properties = new HashMap<>();
+    Map<Configuration, Properties> properties = new ConcurrentHashMap<>();
 
     String DA = "restURL";
 
@@ -122,10 +123,155 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("")
     Map<String, String> restHeaders();
 
+    /**
+     * The maximum number of concurrent requests to the REST endpoint. If greater than 1, the project version lookup
+     * and each chunk of the dependency lookup (as sized by {@link #restMaxSize()}) are sent as separate requests using
+     * up to this many platform threads. Virtual threads are not used as the plugin must also run on JDKs that lack
+     * them. The default of 1 sends a single request for the dependencies, as before, so concurrency is opt-in.
+     * <p>
+     * Default value: 1
+     *
+     * @return the maximum number of concurrent REST requests
+     */
+    @Key("restConcurrency")
+    @DefaultValue("1")
+    int restConcurrency();
+
+    /**
+     * Whether the dependencies found by each project scan are sent to the REST endpoint in the background while the
+     * remaining projects are scanned, rather than all at once after the last scan. Only applies if the REST endpoint
+     * is used for the dependencies and {@link #restMaxSize()} isn't 0, as that requires a single request.
+     * <p>
+     * Default value: false
+     *
+     * @return whether REST lookups are pipelined with the project scans
+     */
+    @Key("restPipeline")
+    @DefaultValue("false")
+    boolean restPipeline();
+
+    /**
+     * Whether the distinct GAVs sent to the REST endpoint are sorted, so that identical builds send identical
+     * requests, rather than kept in the order the projects use them.
+     * <p>
+     * Default value: true
+     *
+     * @return whether the REST request is sorted
+     */
+    @Key("restSortRequest")
+    @DefaultValue("true")
+    boolean restSortRequest();
+
+    /**
+     * Whether the size of the chunks sent to the REST endpoint, and the number sent concurrently (up to
+     * {@link #restConcurrency()}), adapt to the latency of the endpoint. The learned settings are stored within the
+     * GME cache directory (see {@link #restCacheDirectory()}). Only applies if {@link #restMaxSize()} is -1. If
+     * disabled the chunks are sized by {@link #restMaxSize()} alone.
+     * <p>
+     * Default value: false
+     *
+     * @return whether REST requests are sized adaptively
+     */
+    @Key("restAdaptive")
+    @DefaultValue("false")
+    boolean restAdaptive();
+
+    /**
+     * The number of seconds a single chunk sent to the REST endpoint should take at most. Slower chunks reduce the
+     * chunk size if {@link #restAdaptive()} is enabled.
+     * <p>
+     * Default value: 10
+     *
+     * @return the target latency of REST requests in seconds
+     */
+    @Key("restTargetLatency")
+    @DefaultValue("10")
+    int restTargetLatency();
+
+    /**
+     * A local file, or directory of files, holding the aligned versions to use instead of calling the REST endpoint.
+     * This may be a JSON array of REST endpoint lookups, an alignment report (see {@link #reportJsonOutputFile()})
+     * from a previous alignment or a CSV file of <code>groupId:artifactId:version,alignedVersion</code> lines. A
+     * relative path is resolved against the root project directory.
+     * <p>
+     * Default value: "" (the REST endpoint is used)
+     *
+     * @return the file or directory of aligned versions
+     */
+    @Key("restOfflineFile")
+    @DefaultValue("")
+    String restOfflineFile();
+
+    /**
+     * A local file or URL holding <code>dependencyOverride.*</code> and <code>dependencyExclusion.*</code> rules, in
+     * addition to those passed as system properties. A relative path is resolved against the root project directory
+     * and a URL is downloaded once per build.
+     * <p>
+     * While similar, this is not a {@link java.util.Properties} file. Each line holds a single
+     * <code>key=value</code> pair, or just a key for an exclusion, split at the first <code>=</code> and trimmed.
+     * As the keys contain <code>:</code> that is not a separator, and there are no escape sequences or continuation
+     * lines. Blank lines and lines starting with <code>#</code> or <code>!</code> are ignored. As with properties, a
+     * later line with the same key replaces an earlier one. System properties take precedence over the same key
+     * within the file.
+     * <p>
+     * Default value: "" (only system properties are used)
+     *
+     * @return the file or URL of dependency rules
+     */
+    @Key("dependencyRulesFile")
+    @DefaultValue("")
+    String dependencyRulesFile();
+
     @Key("ignoreUnresolvableDependencies")
     @DefaultValue("false")
     boolean ignoreUnresolvableDependencies();
 
+    /**
+     * Whether configurations with an identical fingerprint (repositories, attributes, dependencies, constraints and
+     * resolution strategy) share a single resolution, both within a project and across sibling projects.
+     * Configurations with project dependencies are only shared within their project, while those using dependency
+     * substitution, component selection rules or dependency locking are always resolved individually. Defaults to
+     * true.
+     *
+     * @return whether resolution de-duplication is enabled
+     */
+    @Key("deduplicateResolution")
+    @DefaultValue("true")
+    boolean deduplicateResolution();
+
+    /**
+     * Comma separated list of configuration names to resolve. Entries are globs (e.g. <code>*Classpath</code>) or,
+     * if prefixed with <code>regex:</code>, regular expressions. If empty (the default) all resolvable configurations
+     * are included.
+     *
+     * @return the configurations to include
+     */
+    @Key("configurationIncludes")
+    String[] configurationIncludes();
+
+    /**
+     * Comma separated list of configuration names that should not be resolved, e.g. those for annotation processors
+     * or code quality tools (<code>annotationProcessor,checkstyle,spotbugs*,jacoco*</code>). Uses the same format as
+     * {@link #configurationIncludes()} and takes precedence over it.
+     *
+     * @return the configurations to exclude
+     */
+    @Key("configurationExcludes")
+    String[] configurationExcludes();
+
+    /**
+     * Whether the alignment is skipped when neither its inputs (build scripts, settings, lockfiles, buildSrc and this
+     * configuration) nor its outputs have changed since the last alignment. Note that the results of the remote
+     * alignment service are not an input, so a skipped alignment keeps the project version and suffix of the last
+     * one even if that version has been used since. Only enable this where that is acceptable, e.g. for local
+     * development. Defaults to false.
+     *
+     * @return whether an up-to-date alignment may be skipped
+     */
+    @Key("incrementalAnalysis")
+    @DefaultValue("false")
+    boolean incrementalAnalysis();
+
     @Key("loggingClassnameLineNumber")
     @DefaultValue("true")
     boolean addLoggingClassnameLinenumber();
@@ -159,9 +305,11 @@ public interface Configuration extends Accessible, Reloadable {
     Boolean overrideTransitive();
 
     /**
-     * This value is used to represent the dependency configuration. While PME supports
-     * BOM and REST configs ; currently within Gradle only REST is supported. If this
-     * value is set to "" (or "NONE")
+     * This value is used to represent the dependency configuration. As with PME, REST uses the
+     * endpoint, BOM uses the BOMs listed in {@link #dependencyManagement()}, and BOMREST and RESTBOM use
+     * both with the BOM or REST versions respectively taking precedence. Other alignment services may be
+     * plugged in via an <code>AlignmentServiceProvider</code> added to the build script class path.
+     * If this value is set to "" (or "NONE")
      *
      * @return the value used to represent the dependency configuration
      */
@@ -170,6 +318,26 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("REST")
     DependencyPrecedence dependencyConfiguration();
 
+    /**
+     * Comma separated list of the GAVs of the BOMs whose managed dependency versions are used for alignment if
+     * {@link #dependencyConfiguration()} is BOM, BOMREST or RESTBOM. If a dependency is managed by more than one BOM
+     * the earlier BOM takes precedence.
+     *
+     * @return the BOMs to align with
+     */
+    @Key("dependencyManagement")
+    String[] dependencyManagement();
+
+    /**
+     * Comma separated list of the local Maven repositories (directories or <code>file:</code> URLs) that the BOMs
+     * listed in {@link #dependencyManagement()}, and their parents and imports, are read from. By default this is the
+     * local Maven repository (<code>~/.m2/repository</code>).
+     *
+     * @return the repositories holding the BOMs
+     */
+    @Key("bomRepositories")
+    String[] bomRepositories();
+
     /**
      * Path to the file where project's artifact repositories will be exported in the maven settings format.
      * <p>
@@ -214,6 +382,66 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("false")
     boolean restBrewPullActive();
 
+    /**
+     * The number of minutes the aligned versions returned by the REST endpoint are cached on disk, and shared with
+     * later builds, for. The cache is keyed by the endpoint, {@link #restMode()} and {@link #restBrewPullActive()}.
+     * Project version lookups are never cached on disk as they change with every build.
+     * <p>
+     * Default value: 0 (the cache is disabled)
+     *
+     * @return the time to live of cached REST results in minutes
+     */
+    @Key("restCacheTtl")
+    @DefaultValue("0")
+    long restCacheTtl();
+
+    /**
+     * The maximum number of GAVs held within the on disk REST cache. The least recently used are evicted first.
+     * <p>
+     * Default value: 100000
+     *
+     * @return the maximum size of the REST cache
+     */
+    @Key("restCacheMaxSize")
+    @DefaultValue("100000")
+    int restCacheMaxSize();
+
+    /**
+     * The directory holding the on disk REST cache and the learned REST settings. By default this is
+     * <code>caches/gme</code> within the Gradle user home directory.
+     *
+     * @return the directory of the REST cache
+     */
+    @Key("restCacheDirectory")
+    @DefaultValue("")
+    String restCacheDirectory();
+
+    /**
+     * The number of minutes the versions returned by the REST endpoint for dependencies are cached in memory, and
+     * shared with later builds run by the same daemon, for. The cache is cleared whenever the endpoint,
+     * {@link #restMode()}, {@link #restBrewPullActive()}, {@link #restHeaders()} or {@link #dependencyConfiguration()}
+     * change. Project version lookups are never cached ; the version suffix they return changes once a build of the
+     * project has been made, so a cached result could hand out a suffix that is already used.
+     * <p>
+     * Default value: 0 (the cache is disabled)
+     *
+     * @return the time to live of REST results cached in memory in minutes
+     */
+    @Key("restMemoryCacheTtl")
+    @DefaultValue("0")
+    long restMemoryCacheTtl();
+
+    /**
+     * The maximum number of GAVs held within the in memory REST cache. The least recently used are evicted first.
+     * <p>
+     * Default value: 50000
+     *
+     * @return the maximum size of the in memory REST cache
+     */
+    @Key("restMemoryCacheMaxSize")
+    @DefaultValue("50000")
+    int restMemoryCacheMaxSize();
+
     class DependencyConverter implements Converter<DependencyPrecedence> {
         /**
          * Converts the given input into an Object of type T.
@@ -1,29 +1,40 @@
 package org.jboss.gm.common;
 
+import java.io.File;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
 
+import org.apache.commons.lang.StringUtils;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.commonjava.maven.ext.core.impl.Version;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.jboss.gm.common.io.ManipulationIO;
 import org.jboss.gm.common.model.ManipulationModel;
 import org.jboss.gm.common.utils.ProjectUtils;
 import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
 
 /**
  * Cache that is stored in the root project extensions.
+ * <p>
+ * As the alignment task for each project may be executed concurrently (i.e. when running with {@code --parallel})
+ * all mutable state is held in concurrent collections. Results are returned ordered by project path so that
+ * the output does not depend upon the order in which the tasks completed.
  */
 public class ManipulationCache {
 
@@ -42,7 +53,13 @@ public class ManipulationCache {
      * and is used to make sure that the result of alignment is only written once (by the last alignment task to be
      * performed).
      */
-    private final Set<String> projectCounter = new HashSet<>();
+    private final Set<String> projectCounter = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of projects still to be handled. This is only decremented by the task that actually removed its project
+     * from {@link #projectCounter} so that exactly one caller of {@link #removeProject(Project)} observes zero.
+     */
+    private final AtomicInteger projectsRemaining = new AtomicInteger();
 
     /**
      * Root model.
@@ -52,19 +69,37 @@ public class ManipulationCache {
     @Getter
     private ManipulationModel model;
 
-    private final List<ProjectVersionRef> projectVersionRefs = new ArrayList<>();
-
     /**
-     * This is the project dependencies - it represents a mapping of project module to a map of the original Dependency
-     * (which might be dynamic) to the fully resolved GAV.
-     *
-     * @return the project dependencies
+     * Project GAVs keyed by project path. Sorted so that the root project (if it has a GAV) is always first.
      */
-    @Getter
-    private final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new LinkedHashMap<>();
+    private final ConcurrentMap<String, ProjectVersionRef> projectVersionRefs = new ConcurrentSkipListMap<>();
+
+    private final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = //
+            new ConcurrentHashMap<>();
 
     @Getter
-    private final Map<ArtifactRepository, Path> repositories = new HashMap<>();
+    private final Map<ArtifactRepository, Path> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * Completed resolutions of configurations keyed by their fingerprint. Shared by all projects so that configurations
+     * with identical dependencies are usually only resolved once per run. As the analyzer owns the type of the
+     * resolution it is held as an opaque object.
+     */
+    private final Map<String, Object> resolutions = new ConcurrentHashMap<>();
+
+    /**
+     * The aligned dependencies of each module within an existing manipulation file keyed by the original GAV, keyed
+     * by project path.
+     */
+    private final Map<String, Map<ProjectVersionRef, ProjectVersionRef>> existingAlignedDependencies = //
+            new ConcurrentHashMap<>();
+
+    /**
+     * The model read from an existing manipulation file, or null if there is none. Only read once per run.
+     */
+    private ManipulationModel existingModel;
+
+    private boolean existingModelRead;
 
     /**
      * Retrieves the cache given any project. It will access the root project, check if the
@@ -89,7 +124,7 @@ public class ManipulationCache {
      * @param project the {@link Project} reference.
      * @return the ManipulationCache object.
      */
-    public static ManipulationCache getCache(Project project) {
+    public static synchronized ManipulationCache getCache(Project project) {
         if (project == null) {
             throw new ManipulationUncheckedException("Null project");
         }
@@ -114,24 +149,67 @@ public class ManipulationCache {
      * @param project the project
      */
     public void addProject(Project project) {
-        projectCounter.add(project.getPath());
+        if (projectCounter.add(project.getPath())) {
+            projectsRemaining.incrementAndGet();
+        }
     }
 
     /**
-     * Tracking projects - remove the project when it is evaluated.
+     * Tracking projects - remove the project when it is evaluated. This is safe to call concurrently ; only
+     * the caller that removes the final project will receive true.
      *
      * @param project the project
      * @return true if all projects are now handled.
      */
     public boolean removeProject(Project project) {
-        projectCounter.remove(project.getPath());
-        return projectCounter.isEmpty();
+        return projectCounter.remove(project.getPath()) && projectsRemaining.decrementAndGet() == 0;
     }
 
     public void addDependencies(Project project, Map<RelaxedProjectVersionRef, ProjectVersionRef> deps) {
         dependencies.put(project, deps);
     }
 
+    /**
+     * This is the project dependencies - it represents a mapping of project module to a map of the original Dependency
+     * (which might be dynamic) to the fully resolved GAV.
+     *
+     * @return an unmodifiable snapshot of the project dependencies, ordered by project path
+     */
+    public Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> getDependencies() {
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> result = new TreeMap<>(
+                Comparator.comparing(Project::getPath));
+        result.putAll(dependencies);
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns a completed resolution of a configuration with the given fingerprint, if any project has stored one.
+     * This never waits for a resolution that is still in progress.
+     *
+     * @param fingerprint the fingerprint of the configuration
+     * @param <T> the type of the resolution
+     * @return the resolution or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getResolution(String fingerprint) {
+        return (T) resolutions.get(fingerprint);
+    }
+
+    /**
+     * Stores the resolution of a configuration with the given fingerprint unless another project has already stored
+     * one, in which case that is retained.
+     *
+     * @param fingerprint the fingerprint of the configuration
+     * @param resolution the resolution to store
+     * @param <T> the type of the resolution
+     * @return the resolution now stored for the fingerprint
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T addResolution(String fingerprint, T resolution) {
+        final Object existing = resolutions.putIfAbsent(fingerprint, resolution);
+        return existing == null ? resolution : (T) existing;
+    }
+
     /**
      * As well as storing the GAV, at this point when the GAV is available the project group is now defined.
      * Therefore update the model with the correct groupId.
@@ -144,7 +222,46 @@ public class ManipulationCache {
         if (project != null && model != null) {
             model.findCorrespondingChild(project).setGroup(ProjectUtils.getRealGroupId(project));
         }
-        this.projectVersionRefs.add(gav);
+        this.projectVersionRefs.put(project == null ? rootProject.getPath() : project.getPath(), gav);
+    }
+
+    /**
+     * Returns the aligned dependencies that an existing manipulation file records for the project, keyed by their
+     * original GAV. The manipulation file is only read once, however many projects there are. Unversioned
+     * dependencies are ignored.
+     *
+     * @param project the current Project instance
+     * @return the aligned dependencies, or an empty map if there is no manipulation file
+     */
+    public Map<ProjectVersionRef, ProjectVersionRef> getExistingAlignedDependencies(Project project) {
+        return existingAlignedDependencies.computeIfAbsent(project.getPath(), path -> {
+            final ManipulationModel existing = getExistingModel();
+
+            if (existing == null) {
+                return Collections.emptyMap();
+            }
+            final Map<ProjectVersionRef, ProjectVersionRef> result = new HashMap<>();
+
+            existing.findCorrespondingChild(project).getAlignedDependencies().forEach((original, aligned) -> {
+                // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV.
+                if (StringUtils.countMatches(original, ":") == 2) {
+                    result.put(SimpleProjectVersionRef.parse(original), aligned);
+                }
+            });
+            return result;
+        });
+    }
+
+    private synchronized ManipulationModel getExistingModel() {
+        if (!existingModelRead) {
+            final File rootDir = rootProject.getRootDir();
+
+            if (new File(rootDir, ManipulationIO.MANIPULATION_FILE_NAME).exists()) {
+                existingModel = ManipulationIO.readManipulationModel(rootDir);
+            }
+            existingModelRead = true;
+        }
+        return existingModel;
     }
 
     @Override
@@ -157,7 +274,7 @@ public class ManipulationCache {
     }
 
     public List<ProjectVersionRef> getProjectVersionRefs(boolean versionSuffixSnapshot) {
-        return projectVersionRefs.stream()
+        return projectVersionRefs.values().stream()
                 .map(e -> !versionSuffixSnapshot
                         ? new SimpleProjectVersionRef(e.asProjectRef(), Version.removeSnapshot(e.getVersionString()))
                         : e)
@@ -0,0 +1,66 @@
+package org.jboss.gm.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.jboss.gm.common.utils.SerializationUtils;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads and writes the result of scanning a project ; the map of each dependency (as declared) to the version it
+ * resolved to. The entries are written in order so that identical results have identical content, allowing them to
+ * be shared through the Gradle build cache.
+ */
+public final class ScanResultIO {
+
+    private ScanResultIO() {
+    }
+
+    /**
+     * Writes the result of the scan.
+     *
+     * @param file the file to write to
+     * @param dependencies the dependencies of the project
+     */
+    public static void write(File file, Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies) {
+        final Map<String, ProjectVersionRef> result = new TreeMap<>();
+        dependencies.forEach((k, v) -> result.put(k.toString(), v));
+
+        try {
+            FileUtils.writeStringToFile(file,
+                    SerializationUtils.getObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(result),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to write scan result {}", file, e);
+        }
+    }
+
+    /**
+     * Reads the result of a scan.
+     *
+     * @param file the file to read from
+     * @return the dependencies of the project
+     */
+    public static Map<RelaxedProjectVersionRef, ProjectVersionRef> read(File file) {
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> result = new LinkedHashMap<>();
+
+        try {
+            final ObjectMapper mapper = SerializationUtils.getObjectMapper();
+            final Map<String, ProjectVersionRef> dependencies = mapper.readValue(file,
+                    mapper.getTypeFactory().constructMapType(TreeMap.class, String.class, ProjectVersionRef.class));
+            dependencies.forEach((k, v) -> result.put(RelaxedProjectVersionRef.parse(k), v));
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read scan result {}", file, e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package org.jboss.gm.common.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class ExecutorUtils {
+
+    /**
+     * Creates an executor that runs at most the given number of tasks at once on daemon platform threads. Idle threads
+     * are released so that an executor that is never shut down, e.g. due to a failed build, does not leak threads
+     * within the daemon.
+     *
+     * @param threads the maximum number of concurrent tasks
+     * @return the executor, which should be shut down by the caller
+     */
+    public static ExecutorService newBoundedExecutor(int threads) {
+        final ThreadPoolExecutor result = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), ExecutorUtils::newDaemonThread);
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    private static Thread newDaemonThread(Runnable runnable) {
+        final Thread result = new Thread(runnable, "gme-worker");
+        result.setDaemon(true);
+        return result;
+    }
+}
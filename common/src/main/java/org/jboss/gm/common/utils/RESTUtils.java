@@ -1,5 +1,8 @@
 package org.jboss.gm.common.utils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import lombok.experimental.UtilityClass;
 
 import org.apache.commons.beanutils.ContextClassLoaderLocal;
@@ -10,21 +13,38 @@ import org.jboss.gm.common.Configuration;
 @UtilityClass
 public class RESTUtils {
 
-    private static final ContextClassLoaderLocalWithConfiguration cache = new ContextClassLoaderLocalWithConfiguration();
+    private static final ContextClassLoaderLocalWithConfiguration cache =
+            new ContextClassLoaderLocalWithConfiguration();
 
     public static Translator getTranslator(Configuration config) {
+        return getTranslator(config, config.restMaxSize());
+    }
+
+    /**
+     * Returns a translator that sends at most the given number of GAVs per request, splitting larger lookups.
+     *
+     * @param config the current configuration
+     * @param restMaxSize the maximum request size ; -1 for automatic partitioning and 0 for none
+     * @return the translator
+     */
+    public static Translator getTranslator(Configuration config, int restMaxSize) {
         cache.configuration = config;
-        return cache.get();
+        return cache.get().computeIfAbsent(restMaxSize, cache::create);
     }
 
-    private static class ContextClassLoaderLocalWithConfiguration extends ContextClassLoaderLocal<Translator> {
+    private static class ContextClassLoaderLocalWithConfiguration
+            extends ContextClassLoaderLocal<Map<Integer, Translator>> {
         Configuration configuration = null;
 
         @Override
-        protected Translator initialValue() {
+        protected Map<Integer, Translator> initialValue() {
+            return new ConcurrentHashMap<>();
+        }
+
+        private Translator create(int restMaxSize) {
             return new DefaultTranslator(
                     configuration.daEndpoint(),
-                    configuration.restMaxSize(),
+                    restMaxSize,
                     Translator.CHUNK_SPLIT_COUNT,
                     configuration.restBrewPullActive(),
                     configuration.restMode(),
@@ -12,6 +12,7 @@ import org.commonjava.maven.atlas.ident.version.SingleVersion;
 import org.commonjava.maven.atlas.ident.version.VersionSpec;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ResolvedDependency;
 
 /**
@@ -43,10 +44,30 @@ public class RelaxedProjectVersionRef
         this(dependency.getModuleGroup(), dependency.getModuleName(), dependency.getModuleVersion());
     }
 
+    public RelaxedProjectVersionRef(ModuleVersionIdentifier module) {
+        this(module.getGroup(), module.getName(), module.getVersion());
+    }
+
     public RelaxedProjectVersionRef(Dependency dependency) {
         this(dependency.getGroup(), dependency.getName(), dependency.getVersion());
     }
 
+    /**
+     * Parses the string representation of a RelaxedProjectVersionRef, i.e. either <code>group:artifact</code> or
+     * <code>group:artifact:version</code>.
+     *
+     * @param gav the string to parse
+     * @return the RelaxedProjectVersionRef
+     */
+    public static RelaxedProjectVersionRef parse(String gav) {
+        final String[] parts = gav.split(":", 3);
+
+        if (parts.length < 2) {
+            throw new ManipulationUncheckedException("Unable to parse {} as a dependency", gav);
+        }
+        return new RelaxedProjectVersionRef(parts[0], parts[1], parts.length == 3 ? parts[2] : null);
+    }
+
     @Override
     public ProjectVersionRef asProjectVersionRef() {
         return projectVersionRefDelegate;
@@ -0,0 +1,105 @@
+package org.jboss.gm.common;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.gm.common.io.ManipulationIO;
+import org.jboss.gm.common.model.ManipulationModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ManipulationCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyOnlyOneProjectCompletes() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final List<Project> projects = new ArrayList<>();
+        projects.add(root);
+        for (int i = 0; i < 50; i++) {
+            projects.add(ProjectBuilder.builder().withName("child" + i).withParent(root).build());
+        }
+        final ManipulationCache cache = ManipulationCache.getCache(root);
+        projects.forEach(cache::addProject);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<Boolean>> tasks = new ArrayList<>();
+            projects.forEach(p -> tasks.add(() -> cache.removeProject(p)));
+
+            int completed = 0;
+            for (Future<Boolean> f : executor.invokeAll(tasks)) {
+                if (f.get()) {
+                    completed++;
+                }
+            }
+            assertThat(completed).isEqualTo(1);
+            // Removing a project again must not signal completion a second time.
+            assertThat(cache.removeProject(root)).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void verifyProjectVersionRefsOrdering() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project child = ProjectBuilder.builder().withName("child").withParent(root).build();
+        final ManipulationCache cache = ManipulationCache.getCache(root);
+
+        cache.addGAV(child, new SimpleProjectVersionRef("org.foo", "child", "1.0"));
+        cache.addGAV(root, new SimpleProjectVersionRef("org.foo", "root", "1.0"));
+
+        assertThat(cache.getProjectVersionRefs(true)).extracting("artifactId").containsExactly("root", "child");
+    }
+
+    @Test
+    public void verifyExistingManipulationFileReadOnce() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        final Project child = ProjectBuilder.builder().withName("child").withParent(root).build();
+        final ManipulationCache cache = ManipulationCache.getCache(root);
+
+        assertThat(cache.getExistingAlignedDependencies(child)).isEmpty();
+
+        final ManipulationCache other = ManipulationCache.getCache(ProjectBuilder.builder()
+                .withProjectDir(tempDir.newFolder("other")).build());
+        final Project otherChild = ProjectBuilder.builder().withName("child").withParent(other.getRootProject())
+                .build();
+        final ManipulationModel model = new ManipulationModel(other.getRootProject());
+        final ManipulationModel childModel = new ManipulationModel(otherChild);
+        final SimpleProjectVersionRef aligned = new SimpleProjectVersionRef("org.hibernate", "hibernate-core",
+                "5.3.7.Final-redhat-00001");
+
+        childModel.getAlignedDependencies().put("org.hibernate:hibernate-core:5.3.7.Final", aligned);
+        childModel.getAlignedDependencies().put("org.hibernate:hibernate-envers",
+                new SimpleProjectVersionRef("org.hibernate", "hibernate-envers", "5.3.7.Final-redhat-00001"));
+        model.addChild(childModel);
+        ManipulationIO.writeManipulationModel(other.getRootProject().getRootDir(), model);
+
+        assertThat(other.getExistingAlignedDependencies(otherChild))
+                .containsOnly(entry(new SimpleProjectVersionRef("org.hibernate", "hibernate-core", "5.3.7.Final"),
+                        aligned));
+
+        // The file is not read again for other projects.
+        final File manipulationFile = new File(other.getRootProject().getRootDir(),
+                ManipulationIO.MANIPULATION_FILE_NAME);
+        FileUtils.writeStringToFile(manipulationFile, "{", StandardCharsets.UTF_8);
+        assertThat(other.getExistingAlignedDependencies(other.getRootProject())).isEmpty();
+    }
+}
@@ -0,0 +1,48 @@
+package org.jboss.gm.common.io;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScanResultIOTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyScanResultRoundTrip() throws Exception {
+        final File file = new File(tempDir.getRoot(), "build/gme-scan.json");
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = new HashMap<>();
+
+        dependencies.put(RelaxedProjectVersionRef.parse("org.foo:bar:1.0"),
+                new SimpleProjectVersionRef("org.foo", "bar", "1.0"));
+        dependencies.put(RelaxedProjectVersionRef.parse("org.foo:baz"),
+                new SimpleProjectVersionRef("org.foo", "baz", "2.0"));
+
+        ScanResultIO.write(file, dependencies);
+        final String first = new String(Files.readAllBytes(file.toPath()));
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> result = ScanResultIO.read(file);
+
+        assertThat(result).isEqualTo(dependencies);
+        assertThat(result.keySet()).extracting(RelaxedProjectVersionRef::getVersionString).containsExactly("1.0", null);
+        assertThat(result.keySet().iterator().next()).isEqualTo(new SimpleProjectVersionRef("org.foo", "bar", "1.0"));
+        assertThat(result).containsKey(RelaxedProjectVersionRef.parse("org.foo:baz"));
+        assertThat(RelaxedProjectVersionRef.parse("org.foo:baz").asProjectRef())
+                .isEqualTo(new SimpleProjectRef("org.foo", "baz"));
+
+        // Identical results must have identical content to be shared through the build cache.
+        ScanResultIO.write(file, result);
+        assertThat(new String(Files.readAllBytes(file.toPath()))).isEqualTo(first);
+    }
+}